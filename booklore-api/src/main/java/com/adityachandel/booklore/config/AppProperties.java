@@ -1,15 +1,47 @@
 package com.adityachandel.booklore.config;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Component
 @ConfigurationProperties(prefix = "app")
 @Getter
 @Setter
+@Validated
 public class AppProperties {
+
+    // A scan worker holds two connections at once: one for its ingest transaction and one for the REQUIRES_NEW name
+    // upsert inside it. Out of spring.datasource.hikari.maximum-pool-size (10), two are left for the scan itself and
+    // request threads, so the workers can never all wait on the pool for their second connection.
+    private static final int MAX_POOL_SIZE = 10;
+    private static final int POOL_HEADROOM = 2;
+    public static final int MAX_SCAN_CONCURRENCY = (MAX_POOL_SIZE - POOL_HEADROOM) / 2;
+
     private String pathBook;
     private String pathConfig;
+    @Min(1)
+    @Max(MAX_SCAN_CONCURRENCY)
+    private int scanConcurrency = 4;
+    // Per-device limit on files in flight. Unset means the scan concurrency, so a single-device library is not
+    // throttled below it; set it, or an override, for devices such as spinning disks that suffer from parallel reads.
+    private Integer deviceConcurrency;
+    private Map<String, Integer> deviceConcurrencyOverrides = new HashMap<>();
+    private boolean accelRedirectEnabled = false;
+    private String accelRedirectPrefix = "/_accel";
+    private String accelRedirectBooksRoot = "/books";
+    private long coverCacheMaxBytes = 64L * 1024 * 1024;
+    // Heap held by the central directories of the EPUBs kept open for the reader
+    private long epubCacheMaxBytes = 32L * 1024 * 1024;
+    private Duration coverGcInterval = Duration.ofHours(6);
+    // Unreferenced covers younger than this are kept; it must exceed the longest transaction that stores a cover.
+    private Duration coverGcGracePeriod = Duration.ofHours(1);
 }
@@ -1,7 +1,6 @@
 package com.adityachandel.booklore.config.security;
 
 import lombok.AllArgsConstructor;
-import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -57,19 +56,11 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS" , "PATCH"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
-        configuration.setExposedHeaders(List.of("Content-Disposition"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type", "Range", "If-Range", "If-None-Match", "If-Modified-Since"));
+        configuration.setExposedHeaders(List.of("Content-Disposition", "Content-Range", "Content-Length", "Accept-Ranges", "ETag", "X-Sprite-Columns", "X-Sprite-Cell-Width", "X-Sprite-Cell-Height"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
-
-    @Bean
-    public FilterRegistrationBean<ImageCachingFilter> loggingFilter() {
-        FilterRegistrationBean<ImageCachingFilter> registrationBean = new FilterRegistrationBean<>();
-        registrationBean.setFilter(new ImageCachingFilter());
-        registrationBean.addUrlPatterns("/api/v1/books/*/cover");
-        return registrationBean;
-    }
 }
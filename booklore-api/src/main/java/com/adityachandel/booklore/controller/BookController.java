@@ -1,17 +1,24 @@
 package com.adityachandel.booklore.controller;
 
 import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookPage;
 import com.adityachandel.booklore.model.dto.BookViewerSettings;
+import com.adityachandel.booklore.model.dto.request.BookQueryRequest;
 import com.adityachandel.booklore.model.dto.request.ReadProgressRequest;
 import com.adityachandel.booklore.model.dto.request.ShelvesAssignmentRequest;
+import com.adityachandel.booklore.service.BookQueryService;
 import com.adityachandel.booklore.service.BooksService;
+import com.adityachandel.booklore.service.CoverSpriteService;
+import com.adityachandel.booklore.service.EpubEntryService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -22,30 +29,50 @@ import java.util.List;
 public class BookController {
 
     private final BooksService booksService;
+    private final BookQueryService bookQueryService;
+    private final EpubEntryService epubEntryService;
+    private final CoverSpriteService coverSpriteService;
 
     @GetMapping
     public ResponseEntity<List<Book>> getBooks(@RequestParam(required = false, defaultValue = "false") boolean withDescription) {
         return ResponseEntity.ok(booksService.getBooks(withDescription));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<BookPage> getBookPage(@Valid BookQueryRequest request) {
+        return ResponseEntity.ok(bookQueryService.getBooks(request));
+    }
+
     @GetMapping("/{bookId}")
     public ResponseEntity<Book> getBook(@PathVariable long bookId, @RequestParam(required = false, defaultValue = "false") boolean withDescription) {
         return ResponseEntity.ok(booksService.getBook(bookId, withDescription));
     }
 
     @GetMapping("/{bookId}/cover")
-    public ResponseEntity<Resource> getBookCover(@PathVariable long bookId) {
-        return ResponseEntity.ok(booksService.getBookCover(bookId));
+    public ResponseEntity<Resource> getBookCover(@PathVariable long bookId, @RequestParam(required = false) @Min(1) Integer size,
+                                                 @RequestParam(name = "v", required = false) Long version, @RequestHeader HttpHeaders headers) {
+        return booksService.getBookCover(bookId, size, version, headers);
+    }
+
+    @GetMapping("/covers/sprite")
+    public ResponseEntity<Resource> getCoverSprite(@RequestParam List<Long> ids, @RequestParam(defaultValue = "160") @Min(1) int size,
+                                                   @RequestHeader HttpHeaders headers) {
+        return coverSpriteService.getSprite(ids, size, headers);
     }
 
     @GetMapping("/{bookId}/content")
-    public ResponseEntity<ByteArrayResource> getBookContent(@PathVariable long bookId) throws IOException {
-        return booksService.getBookContent(bookId);
+    public ResponseEntity<StreamingResponseBody> getBookContent(@PathVariable long bookId, @RequestHeader HttpHeaders headers) throws IOException {
+        return booksService.getBookContent(bookId, headers);
+    }
+
+    @GetMapping("/{bookId}/epub/{*entryPath}")
+    public ResponseEntity<Resource> getEpubEntry(@PathVariable long bookId, @PathVariable String entryPath) {
+        return epubEntryService.getEntry(bookId, entryPath);
     }
 
     @GetMapping("/{bookId}/download")
-    public ResponseEntity<Resource> downloadBook(@PathVariable("bookId") Long bookId) {
-        return booksService.downloadBook(bookId);
+    public ResponseEntity<StreamingResponseBody> downloadBook(@PathVariable("bookId") Long bookId, @RequestHeader HttpHeaders headers) {
+        return booksService.downloadBook(bookId, headers);
     }
 
     @GetMapping("/{bookId}/viewer-setting")
@@ -3,7 +3,10 @@ package com.adityachandel.booklore.controller;
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.dto.Library;
 import com.adityachandel.booklore.model.dto.request.CreateLibraryRequest;
+import com.adityachandel.booklore.model.websocket.ScanProgress;
 import com.adityachandel.booklore.service.LibraryService;
+import com.adityachandel.booklore.service.ScanProgressService;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,6 +20,7 @@ import java.util.List;
 public class LibraryController {
 
     private final LibraryService libraryService;
+    private final ScanProgressService scanProgressService;
 
     @GetMapping
     public ResponseEntity<List<Library>> getLibraries() {
@@ -30,13 +34,13 @@ public class LibraryController {
 
     @PostMapping
     @PreAuthorize("@securityUtil.canManipulateLibrary() or @securityUtil.isAdmin()")
-    public ResponseEntity<Library> createLibrary(@RequestBody CreateLibraryRequest request) {
+    public ResponseEntity<Library> createLibrary(@RequestBody @Valid CreateLibraryRequest request) {
         return ResponseEntity.ok(libraryService.createLibrary(request));
     }
 
     @PutMapping("/{libraryId}")
     @PreAuthorize("@securityUtil.canManipulateLibrary() or @securityUtil.isAdmin()")
-    public ResponseEntity<Library> updateLibrary(@RequestBody CreateLibraryRequest request, @PathVariable Long libraryId) {
+    public ResponseEntity<Library> updateLibrary(@RequestBody @Valid CreateLibraryRequest request, @PathVariable Long libraryId) {
         return ResponseEntity.ok(libraryService.updateLibrary(request, libraryId));
     }
 
@@ -58,6 +62,13 @@ public class LibraryController {
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping("/{libraryId}/scan-progress")
+    public ResponseEntity<ScanProgress> getScanProgress(@PathVariable long libraryId) {
+        return scanProgressService.getProgress(libraryId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
     @PutMapping("/{libraryId}/refresh")
     @PreAuthorize("@securityUtil.canManipulateLibrary() or @securityUtil.isAdmin()")
     public ResponseEntity<?> rescanLibrary(@PathVariable long libraryId) {
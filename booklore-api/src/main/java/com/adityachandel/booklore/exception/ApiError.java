@@ -39,7 +39,9 @@ public enum ApiError {
     PASSWORD_INCORRECT(HttpStatus.BAD_REQUEST, "Incorrect current password"),
     PASSWORD_TOO_SHORT(HttpStatus.BAD_REQUEST, "Password must be at least 6 characters long"),
     PASSWORD_SAME_AS_CURRENT(HttpStatus.BAD_REQUEST, "New password cannot be the same as the current password"),
-    INVALID_CREDENTIALS(HttpStatus.BAD_REQUEST, "Invalid credentials");
+    INVALID_CREDENTIALS(HttpStatus.BAD_REQUEST, "Invalid credentials"),
+    EPUB_ENTRY_NOT_FOUND(HttpStatus.NOT_FOUND, "Entry %s not found in book with ID: %d"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Invalid page cursor for the requested sort order");
 
     private final HttpStatus status;
     private final String message;
@@ -0,0 +1,16 @@
+package com.adityachandel.booklore.exception;
+
+import com.adityachandel.booklore.model.dto.Book;
+import lombok.Getter;
+
+// Thrown when a book file could not be parsed. The shell book created for the file is still committed and carried
+// here, so callers can count the failure and still surface the book.
+@Getter
+public class FileProcessingException extends RuntimeException {
+    private final transient Book book;
+
+    public FileProcessingException(String fileName, Book book, Throwable cause) {
+        super("Failed to process file " + fileName + ": " + cause.getMessage(), cause);
+        this.book = book;
+    }
+}
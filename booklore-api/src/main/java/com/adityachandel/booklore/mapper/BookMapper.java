@@ -4,9 +4,12 @@ import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.entity.AuthorEntity;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.CategoryEntity;
+import com.adityachandel.booklore.util.BookUtils;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,6 +27,15 @@ public interface BookMapper {
     @Mapping(source = "shelves", target = "shelves")
     Book toBookWithDescription(BookEntity bookEntity, @Context boolean includeDescription);
 
+    @AfterMapping
+    default void setCover(BookEntity bookEntity, @MappingTarget Book book) {
+        if (bookEntity.getMetadata() != null && bookEntity.getMetadata().getCoverUpdatedOn() != null) {
+            book.setCoverUrl(BookUtils.getCoverUrl(bookEntity.getId(), bookEntity.getMetadata().getCoverUpdatedOn()));
+            book.setCoverBlurhash(bookEntity.getMetadata().getCoverBlurhash());
+            book.setCoverColor(bookEntity.getMetadata().getCoverColor());
+        }
+    }
+
     default List<String> mapAuthors(List<AuthorEntity> authors) {
         if (authors == null) {
             return null;
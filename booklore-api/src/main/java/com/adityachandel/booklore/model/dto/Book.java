@@ -18,6 +18,9 @@ public class Book {
     private Instant lastReadTime;
     private Instant addedOn;
     private BookMetadata metadata;
+    private String coverUrl;
+    private String coverBlurhash;
+    private String coverColor;
     private Integer pdfProgress;
     private String epubProgress;
     private List<Shelf> shelves;
@@ -0,0 +1,15 @@
+package com.adityachandel.booklore.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookPage {
+    private List<Book> books;
+    private String nextCursor;
+}
@@ -0,0 +1,13 @@
+package com.adityachandel.booklore.model.dto;
+
+import java.time.Instant;
+
+public interface BookProgress {
+    Long getBookId();
+
+    Instant getLastReadTime();
+
+    Integer getPdfProgress();
+
+    String getEpubProgress();
+}
@@ -0,0 +1,11 @@
+package com.adityachandel.booklore.model.dto;
+
+import java.time.Instant;
+
+public interface CoverVersion {
+    Long getBookId();
+
+    String getThumbnail();
+
+    Instant getCoverUpdatedOn();
+}
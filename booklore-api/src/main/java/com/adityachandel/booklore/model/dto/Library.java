@@ -15,6 +15,7 @@ public class Library {
     private Sort sort;
     private String icon;
     private boolean watch;
+    private Integer scanConcurrency;
     private List<LibraryPath> paths;
 }
 
@@ -0,0 +1,15 @@
+package com.adityachandel.booklore.model.dto;
+
+import com.adityachandel.booklore.model.enums.BookFileType;
+
+public interface MissingCover {
+    Long getBookId();
+
+    String getLibraryPath();
+
+    String getFileSubPath();
+
+    String getFileName();
+
+    BookFileType getBookType();
+}
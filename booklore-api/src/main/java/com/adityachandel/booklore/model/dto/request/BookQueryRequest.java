@@ -0,0 +1,27 @@
+package com.adityachandel.booklore.model.dto.request;
+
+import com.adityachandel.booklore.model.enums.BookSortKey;
+import com.adityachandel.booklore.model.enums.ReadStatus;
+import com.adityachandel.booklore.model.enums.SortDirection;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class BookQueryRequest {
+    private Long libraryId;
+    private Long shelfId;
+    private Long authorId;
+    private Long categoryId;
+    private String language;
+    private ReadStatus readStatus;
+    private BookSortKey sort = BookSortKey.ADDED_ON;
+    private SortDirection direction = SortDirection.DESCENDING;
+    private String cursor;
+
+    @Min(1)
+    @Max(200)
+    private int limit = 50;
+
+    private boolean withDescription;
+}
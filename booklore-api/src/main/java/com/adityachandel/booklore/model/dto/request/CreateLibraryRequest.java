@@ -1,7 +1,10 @@
 package com.adityachandel.booklore.model.dto.request;
 
+import com.adityachandel.booklore.config.AppProperties;
 import com.adityachandel.booklore.model.dto.LibraryPath;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Builder;
@@ -20,4 +23,7 @@ public class CreateLibraryRequest {
     @NotEmpty
     private List<LibraryPath> paths;
     private boolean watch;
+    @Min(1)
+    @Max(AppProperties.MAX_SCAN_CONCURRENCY)
+    private Integer scanConcurrency;
 }
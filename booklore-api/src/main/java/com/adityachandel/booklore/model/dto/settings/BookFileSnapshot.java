@@ -0,0 +1,15 @@
+package com.adityachandel.booklore.model.dto.settings;
+
+public interface BookFileSnapshot {
+    Long getId();
+
+    String getFileSubPath();
+
+    String getFileName();
+
+    Long getFileSizeBytes();
+
+    Long getFileModifiedMs();
+
+    String getFileHash();
+}
@@ -0,0 +1,15 @@
+package com.adityachandel.booklore.model.dto.settings;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class LibraryDiff {
+    private final List<LibraryFile> newFiles = new ArrayList<>();
+    private final List<LibraryFile> changedFiles = new ArrayList<>();
+    private final List<LibraryFile> movedFiles = new ArrayList<>();
+    private final List<LibraryFile> fingerprintUpdates = new ArrayList<>();
+    private final List<BookFileSnapshot> removedBooks = new ArrayList<>();
+}
@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.nio.file.Path;
+
 @Builder
 @Data
 @AllArgsConstructor
@@ -16,4 +18,12 @@ public class LibraryFile {
     private String fileSubPath;
     private String fileName;
     private BookFileType bookFileType;
+    private Long bookId;
+    private Long fileSizeBytes;
+    private Long fileModifiedMs;
+    private String fileHash;
+
+    public Path getFullPath() {
+        return Path.of(libraryPathEntity.getPath(), fileSubPath, fileName);
+    }
 }
@@ -19,7 +19,8 @@ public class AuthorEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "name")
+    // Authors are never renamed, which keeps book_metadata.author_sort in step with the names it was derived from
+    @Column(name = "name", updatable = false)
     private String name;
 
     @ManyToMany(mappedBy = "authors", fetch = FetchType.LAZY)
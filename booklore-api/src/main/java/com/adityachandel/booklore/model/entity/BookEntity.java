@@ -17,7 +17,8 @@ import java.util.List;
 public class BookEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "file_name", length = 1000)
@@ -43,6 +44,21 @@ public class BookEntity {
     @Column(name = "added_on")
     private Instant addedOn;
 
+    @Column(name = "file_size_bytes")
+    private Long fileSizeBytes;
+
+    @Column(name = "file_modified_ms")
+    private Long fileModifiedMs;
+
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
+    @Column(name = "parse_complete")
+    private Boolean parseComplete;
+
+    @Column(name = "parse_failures")
+    private int parseFailures;
+
     @ManyToMany
     @JoinTable(
             name = "book_shelf_mapping",
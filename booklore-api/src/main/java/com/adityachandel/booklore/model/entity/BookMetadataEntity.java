@@ -3,10 +3,12 @@ package com.adityachandel.booklore.model.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
 @Getter
@@ -69,6 +71,18 @@ public class BookMetadataEntity {
     @Column(name = "cover_updated_on")
     private Instant coverUpdatedOn;
 
+    @Column(name = "author_sort")
+    private String authorSort;
+
+    @Column(name = "cover_hash", length = 64)
+    private String coverHash;
+
+    @Column(name = "cover_blurhash", length = 64)
+    private String coverBlurhash;
+
+    @Column(name = "cover_color", length = 7)
+    private String coverColor;
+
     // Locking fields
     @Column(name = "all_fields_locked")
     private Boolean allFieldsLocked = Boolean.FALSE;
@@ -150,4 +164,20 @@ public class BookMetadataEntity {
 
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "book")
     private List<BookAwardEntity> awards;
-}
\ No newline at end of file
+
+    // Denormalized sort key for author ordering, so listings can seek on an index instead of joining the mapping table.
+    // Code that changes the authors calls this itself: a change to the collection alone leaves this entity's columns
+    // clean, so @PreUpdate does not fire for it. An uninitialized author collection cannot have changed.
+    @PrePersist
+    @PreUpdate
+    public void updateAuthorSort() {
+        if (!Hibernate.isInitialized(authors)) {
+            return;
+        }
+        authorSort = authors == null ? null : authors.stream()
+                .map(AuthorEntity::getName)
+                .filter(Objects::nonNull)
+                .min(String.CASE_INSENSITIVE_ORDER)
+                .orElse(null);
+    }
+}
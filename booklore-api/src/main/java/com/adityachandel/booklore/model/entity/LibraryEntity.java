@@ -4,6 +4,7 @@ import com.adityachandel.booklore.convertor.SortConverter;
 import com.adityachandel.booklore.model.dto.Sort;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
@@ -28,6 +29,8 @@ public class LibraryEntity {
     @OneToMany(mappedBy = "library", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BookEntity> bookEntities;
 
+    // Loaded for every library a listing touches; batching keeps that at one select however many libraries it spans
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "library", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     private List<LibraryPathEntity> libraryPaths;
 
@@ -38,4 +41,7 @@ public class LibraryEntity {
 
     private String icon;
 
+    @Column(name = "scan_concurrency")
+    private Integer scanConcurrency;
+
 }
@@ -0,0 +1,5 @@
+package com.adityachandel.booklore.model.enums;
+
+public enum ReadStatus {
+    UNREAD, STARTED
+}
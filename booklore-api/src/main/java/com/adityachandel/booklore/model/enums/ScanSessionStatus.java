@@ -0,0 +1,7 @@
+package com.adityachandel.booklore.model.enums;
+
+public enum ScanSessionStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
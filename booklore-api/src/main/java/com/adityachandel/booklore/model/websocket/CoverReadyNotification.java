@@ -0,0 +1,16 @@
+package com.adityachandel.booklore.model.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class CoverReadyNotification {
+    private Long bookId;
+    private String coverUrl;
+    private Instant coverUpdatedOn;
+    private String coverBlurhash;
+    private String coverColor;
+}
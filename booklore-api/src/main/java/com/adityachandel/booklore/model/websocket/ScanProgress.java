@@ -0,0 +1,22 @@
+package com.adityachandel.booklore.model.websocket;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ScanProgress {
+    private long scanId;
+    private long libraryId;
+    private String libraryName;
+    private int totalFiles;
+    private int processedFiles;
+    private int failedFiles;
+    private long bytesRead;
+    private double filesPerSecond;
+    private Long etaSeconds;
+    private Instant startedAt;
+    private boolean finished;
+}
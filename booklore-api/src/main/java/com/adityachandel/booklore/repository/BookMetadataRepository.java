@@ -1,12 +1,19 @@
 package com.adityachandel.booklore.repository;
 
+import com.adityachandel.booklore.model.dto.CoverVersion;
 import com.adityachandel.booklore.model.entity.BookAwardEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface BookMetadataRepository extends JpaRepository<BookMetadataEntity, Long> {
 
@@ -16,4 +23,45 @@ public interface BookMetadataRepository extends JpaRepository<BookMetadataEntity
                                                                     @Param("category") String category,
                                                                     @Param("awardedAt") LocalDate awardedAt);
 
+    @Query("SELECT m FROM BookMetadataEntity m LEFT JOIN FETCH m.authors WHERE m.book.library.id IN :libraryIds")
+    List<BookMetadataEntity> fetchAuthorsByLibraryIdIn(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT m FROM BookMetadataEntity m LEFT JOIN FETCH m.categories WHERE m.book.library.id IN :libraryIds")
+    List<BookMetadataEntity> fetchCategoriesByLibraryIdIn(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT m FROM BookMetadataEntity m LEFT JOIN FETCH m.awards WHERE m.book.library.id IN :libraryIds")
+    List<BookMetadataEntity> fetchAwardsByLibraryIdIn(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT m FROM BookMetadataEntity m LEFT JOIN FETCH m.authors WHERE m.bookId IN :bookIds")
+    List<BookMetadataEntity> fetchAuthorsByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT m FROM BookMetadataEntity m LEFT JOIN FETCH m.categories WHERE m.bookId IN :bookIds")
+    List<BookMetadataEntity> fetchCategoriesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT m FROM BookMetadataEntity m LEFT JOIN FETCH m.awards WHERE m.bookId IN :bookIds")
+    List<BookMetadataEntity> fetchAwardsByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT m.bookId AS bookId, m.thumbnail AS thumbnail, m.coverUpdatedOn AS coverUpdatedOn FROM BookMetadataEntity m WHERE m.bookId IN :bookIds")
+    List<CoverVersion> findCoverVersions(@Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BookMetadataEntity m SET m.thumbnail = :thumbnail, m.coverHash = :coverHash, m.coverUpdatedOn = :coverUpdatedOn, m.coverBlurhash = :blurhash, m.coverColor = :color WHERE m.bookId = :bookId")
+    int updateCover(@Param("bookId") long bookId, @Param("thumbnail") String thumbnail, @Param("coverHash") String coverHash,
+                    @Param("coverUpdatedOn") Instant coverUpdatedOn, @Param("blurhash") String blurhash, @Param("color") String color);
+
+    @Query("SELECT m.bookId AS bookId, m.thumbnail AS thumbnail, m.coverUpdatedOn AS coverUpdatedOn FROM BookMetadataEntity m WHERE m.coverHash IS NULL AND m.thumbnail IS NOT NULL")
+    List<CoverVersion> findLegacyCovers();
+
+    @Query("SELECT DISTINCT m.coverHash FROM BookMetadataEntity m WHERE m.coverHash IS NOT NULL")
+    Set<String> findReferencedCoverHashes();
+
+    boolean existsByCoverHash(String coverHash);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BookMetadataEntity m SET m.thumbnail = :thumbnail, m.coverHash = :coverHash WHERE m.bookId = :bookId AND m.thumbnail = :legacyThumbnail")
+    int moveLegacyCover(@Param("bookId") long bookId, @Param("legacyThumbnail") String legacyThumbnail,
+                        @Param("thumbnail") String thumbnail, @Param("coverHash") String coverHash);
+
 }
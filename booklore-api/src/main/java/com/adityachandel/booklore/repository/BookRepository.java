@@ -1,14 +1,20 @@
 package com.adityachandel.booklore.repository;
 
+import com.adityachandel.booklore.model.dto.MissingCover;
+import com.adityachandel.booklore.model.dto.settings.BookFileSnapshot;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,12 +22,23 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpecificationExecutor<BookEntity> {
 
     List<BookEntity> findAllByIdIn(Collection<Long> ids);
 
+    @EntityGraph(attributePaths = {"metadata", "library", "libraryPath"})
+    @Query("SELECT b FROM BookEntity b WHERE b.library.id IN :libraryIds")
+    List<BookEntity> findWithMetadataByLibraryIdIn(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT b FROM BookEntity b LEFT JOIN FETCH b.shelves WHERE b.library.id IN :libraryIds")
+    List<BookEntity> fetchShelvesByLibraryIdIn(@Param("libraryIds") Collection<Long> libraryIds);
+
+    @Query("SELECT b FROM BookEntity b LEFT JOIN FETCH b.shelves WHERE b.id IN :ids")
+    List<BookEntity> fetchShelvesByIdIn(@Param("ids") Collection<Long> ids);
+
     List<BookEntity> findBooksByLibraryId(Long libraryId);
 
     @Query("SELECT b.id FROM BookEntity b WHERE b.libraryPath.id IN :libraryPathIds")
@@ -31,6 +48,9 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
 
     Optional<BookEntity> findBookByFileNameAndLibraryId(String fileName, long libraryId);
 
+    @Query("SELECT b.fileName FROM BookEntity b WHERE b.library.id = :libraryId AND b.fileName IN :fileNames")
+    Set<String> findFileNamesByLibraryIdAndFileNameIn(@Param("libraryId") long libraryId, @Param("fileNames") Collection<String> fileNames);
+
     @Query("SELECT b FROM BookEntity b JOIN b.shelves s WHERE s.id = :shelfId")
     List<BookEntity> findByShelfId(@Param("shelfId") Long shelfId);
 
@@ -42,5 +62,28 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     List<BookEntity> findBooksByUserLibraries(@Param("userLibraries") List<LibraryEntity> userLibraries);
 
     List<BookEntity> findByLibraryIdIn(Set<Long> userLibraryIds);
+
+    @Query("SELECT b.id AS bookId, lp.path AS libraryPath, b.fileSubPath AS fileSubPath, b.fileName AS fileName, b.bookType AS bookType " +
+            "FROM BookEntity b JOIN b.libraryPath lp JOIN b.metadata m " +
+            "WHERE m.thumbnail IS NULL AND b.parseComplete = true " +
+            "AND (m.coverLocked IS NULL OR m.coverLocked = false) AND (m.allFieldsLocked IS NULL OR m.allFieldsLocked = false) " +
+            "AND (:libraryId IS NULL OR b.library.id = :libraryId)")
+    List<MissingCover> findMissingCovers(@Param("libraryId") Long libraryId);
+
+    List<BookEntity> findByLibraryIdAndParseCompleteFalseAndParseFailuresLessThan(long libraryId, int parseFailures);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT b.id AS id, b.file_sub_path AS fileSubPath, b.file_name AS fileName, b.file_size_bytes AS fileSizeBytes, " +
+            "b.file_modified_ms AS fileModifiedMs, b.file_hash AS fileHash FROM book b WHERE b.library_path_id = :libraryPathId " +
+            "ORDER BY CAST(b.file_sub_path AS BINARY), CAST(b.file_name AS BINARY)", nativeQuery = true)
+    Stream<BookFileSnapshot> streamBookFilesByLibraryPathId(@Param("libraryPathId") long libraryPathId);
+
+    @Modifying
+    @Query("UPDATE BookEntity b SET b.libraryPath = :libraryPath, b.fileSubPath = :fileSubPath, b.fileName = :fileName WHERE b.id = :bookId")
+    void updateFileLocation(@Param("bookId") long bookId, @Param("libraryPath") LibraryPathEntity libraryPath, @Param("fileSubPath") String fileSubPath, @Param("fileName") String fileName);
+
+    @Modifying
+    @Query("UPDATE BookEntity b SET b.fileSizeBytes = :fileSizeBytes, b.fileModifiedMs = :fileModifiedMs, b.fileHash = :fileHash WHERE b.id = :bookId")
+    void updateFileFingerprint(@Param("bookId") long bookId, @Param("fileSizeBytes") Long fileSizeBytes, @Param("fileModifiedMs") Long fileModifiedMs, @Param("fileHash") String fileHash);
 }
 
@@ -0,0 +1,63 @@
+package com.adityachandel.booklore.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+@Repository
+@AllArgsConstructor
+public class NameUpsertRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> findAllAuthorIds() {
+        return findAllIds("author");
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> findAllCategoryIds() {
+        return findAllIds("category");
+    }
+
+    // Runs in its own transaction so the new rows are committed, and visible to every worker, before anyone caches their ids.
+    // Callers inside an ingest transaction therefore hold a second connection; AppProperties.MAX_SCAN_CONCURRENCY allows for it.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> upsertAuthors(Collection<String> names) {
+        return upsert("author", names);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Long> upsertCategories(Collection<String> names) {
+        return upsert("category", names);
+    }
+
+    private Map<String, Long> findAllIds(String table) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " WHERE name IS NOT NULL",
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    private Map<String, Long> upsert(String table, Collection<String> names) {
+        MapSqlParameterSource[] batchArgs = names.stream()
+                .map(name -> new MapSqlParameterSource("name", name))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO " + table + " (name) VALUES (:name)", batchArgs);
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " WHERE name IN (:names)",
+                new MapSqlParameterSource("names", names),
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getLong("id"));
+                });
+        return ids;
+    }
+}
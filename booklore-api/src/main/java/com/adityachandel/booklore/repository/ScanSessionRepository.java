@@ -0,0 +1,25 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.ScanSessionEntity;
+import com.adityachandel.booklore.model.enums.ScanSessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ScanSessionRepository extends JpaRepository<ScanSessionEntity, Long> {
+
+    List<ScanSessionEntity> findByStatus(ScanSessionStatus status);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE ScanSessionEntity s SET s.status = :status, s.finishedAt = :finishedAt WHERE s.id = :sessionId")
+    void finishSession(@Param("sessionId") long sessionId, @Param("status") ScanSessionStatus status, @Param("finishedAt") Instant finishedAt);
+}
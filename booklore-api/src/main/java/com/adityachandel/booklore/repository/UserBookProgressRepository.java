@@ -1,9 +1,14 @@
 package com.adityachandel.booklore.repository;
 
+import com.adityachandel.booklore.model.dto.BookProgress;
 import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,12 @@ public interface UserBookProgressRepository extends JpaRepository<UserBookProgre
 
     Optional<UserBookProgressEntity> findByUserIdAndBookId(Long userId, Long bookId);
 
+    @Query("SELECT p.book.id AS bookId, p.lastReadTime AS lastReadTime, p.pdfProgress AS pdfProgress, p.epubProgress AS epubProgress " +
+            "FROM UserBookProgressEntity p WHERE p.user.id = :userId")
+    List<BookProgress> findProgressByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT p.book.id AS bookId, p.lastReadTime AS lastReadTime, p.pdfProgress AS pdfProgress, p.epubProgress AS epubProgress " +
+            "FROM UserBookProgressEntity p WHERE p.user.id = :userId AND p.book.id IN :bookIds")
+    List<BookProgress> findProgressByUserIdAndBookIdIn(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+
 }
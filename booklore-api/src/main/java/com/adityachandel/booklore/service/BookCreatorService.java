@@ -4,21 +4,26 @@ import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.entity.*;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.*;
+import com.adityachandel.booklore.util.FileUtils;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class BookCreatorService {
 
-    private final AuthorRepository authorRepository;
-    private final CategoryRepository categoryRepository;
+    private final NameInterningService nameInterningService;
     private final BookRepository bookRepository;
     private final BookMetadataRepository bookMetadataRepository;
 
@@ -30,56 +35,74 @@ public class BookCreatorService {
                 .fileSubPath(libraryFile.getFileSubPath())
                 .bookType(bookFileType)
                 .addedOn(Instant.now())
+                .parseComplete(false)
                 .build();
         BookMetadataEntity bookMetadataEntity = BookMetadataEntity.builder().build();
         bookEntity.setMetadata(bookMetadataEntity);
-        bookEntity = bookRepository.saveAndFlush(bookEntity);
+        updateFileFingerprint(bookEntity);
+        bookEntity = bookRepository.save(bookEntity);
 
         return bookEntity;
     }
 
+    public void prepareForReprocess(BookEntity bookEntity, LibraryFile libraryFile, boolean resetMetadata) {
+        bookEntity.setLibraryPath(libraryFile.getLibraryPathEntity());
+        bookEntity.setFileSubPath(libraryFile.getFileSubPath());
+        bookEntity.setFileName(libraryFile.getFileName());
+        updateFileFingerprint(bookEntity);
+        BookMetadataEntity metadata = bookEntity.getMetadata();
+        if (resetMetadata && metadata.getAuthors() != null && !Boolean.TRUE.equals(metadata.getAuthorsLocked())) {
+            metadata.getAuthors().clear();
+            metadata.updateAuthorSort();
+        }
+        if (resetMetadata && metadata.getCategories() != null && !Boolean.TRUE.equals(metadata.getCategoriesLocked())) {
+            metadata.getCategories().clear();
+        }
+    }
+
+    public void updateFileFingerprint(BookEntity bookEntity) {
+        Path path = Path.of(FileUtils.getBookFullPath(bookEntity));
+        try {
+            bookEntity.setFileSizeBytes(Files.size(path));
+            bookEntity.setFileModifiedMs(FileUtils.getLastModified(path));
+            bookEntity.setFileHash(FileUtils.computePartialHash(path));
+        } catch (IOException e) {
+            log.warn("Unable to fingerprint file {}: {}", path, e.getMessage());
+        }
+    }
+
     public void addCategoriesToBook(List<String> categories, BookEntity bookEntity) {
-        for (String category : categories) {
-            Optional<CategoryEntity> catOpt = categoryRepository.findByName(category);
-            CategoryEntity categoryEntity;
-            if (catOpt.isPresent()) {
-                categoryEntity = catOpt.get();
-            } else {
-                categoryEntity = CategoryEntity.builder()
-                        .name(category)
-                        .build();
-                categoryEntity = categoryRepository.save(categoryEntity);
-            }
-            if (bookEntity.getMetadata().getCategories() == null) {
-                bookEntity.getMetadata().setCategories(new ArrayList<>());
-            }
-            bookEntity.getMetadata().getCategories().add(categoryEntity);
+        if (Boolean.TRUE.equals(bookEntity.getMetadata().getCategoriesLocked())) {
+            return;
+        }
+        if (bookEntity.getMetadata().getCategories() == null) {
+            bookEntity.getMetadata().setCategories(new ArrayList<>());
         }
+        Set<Long> addedIds = new HashSet<>();
+        nameInterningService.getCategoryIds(categories).forEach((name, id) -> {
+            if (addedIds.add(id)) {
+                bookEntity.getMetadata().getCategories().add(CategoryEntity.builder().id(id).name(name).build());
+            }
+        });
     }
 
     public void addAuthorsToBook(Set<String> authors, BookEntity bookEntity) {
-        for (String authorStr : authors) {
-            Optional<AuthorEntity> authorOptional = authorRepository.findByName(authorStr);
-            AuthorEntity authorEntity;
-            if (authorOptional.isPresent()) {
-                authorEntity = authorOptional.get();
-            } else {
-                authorEntity = AuthorEntity.builder()
-                        .name(authorStr)
-                        .build();
-                authorEntity = authorRepository.save(authorEntity);
-            }
-            if (bookEntity.getMetadata().getAuthors() == null) {
-                bookEntity.getMetadata().setAuthors(new ArrayList<>());
-            }
-            bookEntity.getMetadata().getAuthors().add(authorEntity);
+        if (Boolean.TRUE.equals(bookEntity.getMetadata().getAuthorsLocked())) {
+            return;
+        }
+        if (bookEntity.getMetadata().getAuthors() == null) {
+            bookEntity.getMetadata().setAuthors(new ArrayList<>());
         }
+        Set<Long> addedIds = new HashSet<>();
+        nameInterningService.getAuthorIds(authors).forEach((name, id) -> {
+            if (addedIds.add(id)) {
+                bookEntity.getMetadata().getAuthors().add(AuthorEntity.builder().id(id).name(name).build());
+            }
+        });
+        bookEntity.getMetadata().updateAuthorSort();
     }
 
     public void saveConnections(BookEntity bookEntity) {
-        if (bookEntity.getMetadata().getAuthors() != null && !bookEntity.getMetadata().getAuthors().isEmpty()) {
-            authorRepository.saveAll(bookEntity.getMetadata().getAuthors());
-        }
         bookRepository.save(bookEntity);
         bookMetadataRepository.save(bookEntity.getMetadata());
     }
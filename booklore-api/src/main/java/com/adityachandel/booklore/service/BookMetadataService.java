@@ -18,6 +18,8 @@ import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
 import com.adityachandel.booklore.model.enums.MetadataProvider;
 import com.adityachandel.booklore.service.metadata.parser.BookParser;
+import com.adityachandel.booklore.service.fileprocessor.FileProcessingUtils;
+import com.adityachandel.booklore.util.CoverStorageService;
 import com.adityachandel.booklore.util.FileService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,7 +27,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
@@ -49,6 +50,8 @@ public class BookMetadataService {
     private final BookMetadataRepository bookMetadataRepository;
     private final FileService fileService;
     private final Map<MetadataProvider, BookParser> parserMap;
+    private final CoverCacheService coverCacheService;
+    private final FileProcessingUtils fileProcessingUtils;
 
     public List<BookMetadata> getProspectiveMetadataListForBookId(long bookId, FetchMetadataRequest request) {
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
@@ -389,10 +392,11 @@ public class BookMetadataService {
     }
 
     public BookMetadata handleCoverUpload(Long bookId, MultipartFile file) {
-        fileService.createThumbnailFromFile(bookId, file);
+        CoverStorageService.StoredCover storedCover = fileService.createThumbnailFromFile(file);
         BookMetadataEntity metadata = bookMetadataRepository.findById(bookId).orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + bookId));
-        metadata.setCoverUpdatedOn(Instant.now());
+        fileProcessingUtils.setBookCover(metadata, storedCover);
         bookMetadataRepository.save(metadata);
+        coverCacheService.evictAfterCommit(bookId);
         return bookMetadataMapper.toBookMetadata(metadata, true);
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.dto.BookMetadata;
 import com.adityachandel.booklore.model.entity.*;
 import com.adityachandel.booklore.repository.*;
+import com.adityachandel.booklore.service.fileprocessor.FileProcessingUtils;
 import com.adityachandel.booklore.util.FileService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,8 @@ public class BookMetadataUpdater {
     private final BookAwardRepository awardRepository;
     private final FileService fileService;
     private final BookAwardRepository bookAwardRepository;
+    private final CoverCacheService coverCacheService;
+    private final FileProcessingUtils fileProcessingUtils;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public BookMetadataEntity setBookMetadata(long bookId, BookMetadata newMetadata, boolean setThumbnail, boolean mergeCategories) {
@@ -136,6 +139,7 @@ public class BookMetadataUpdater {
                     .map(authorName -> authorRepository.findByName(authorName)
                             .orElseGet(() -> authorRepository.save(AuthorEntity.builder().name(authorName).build())))
                     .collect(Collectors.toList()));
+            metadata.updateAuthorSort();
         }
 
         if (mergeCategories) {
@@ -163,14 +167,14 @@ public class BookMetadataUpdater {
         }
 
         if (setThumbnail && (metadata.getThumbnailLocked() == null || !metadata.getThumbnailLocked()) && newMetadata.getThumbnailUrl() != null && !newMetadata.getThumbnailUrl().isEmpty()) {
-            String thumbnailPath = null;
             try {
-                thumbnailPath = fileService.createThumbnail(bookId, newMetadata.getThumbnailUrl());
-                metadata.setCoverUpdatedOn(Instant.now());
+                fileProcessingUtils.setBookCover(metadata, fileService.createThumbnail(newMetadata.getThumbnailUrl()));
+                coverCacheService.evictAfterCommit(bookId);
             } catch (IOException e) {
                 log.error(e.getMessage());
+                metadata.setThumbnail(null);
+                metadata.setCoverHash(null);
             }
-            metadata.setThumbnail(thumbnailPath);
         }
 
         if (!metadata.getAuthors().isEmpty()) {
@@ -0,0 +1,218 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.security.AuthenticationService;
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.mapper.BookMapper;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.dto.BookPage;
+import com.adityachandel.booklore.model.dto.BookProgress;
+import com.adityachandel.booklore.model.dto.request.BookQueryRequest;
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.BookSortKey;
+import com.adityachandel.booklore.model.enums.ReadStatus;
+import com.adityachandel.booklore.model.enums.SortDirection;
+import com.adityachandel.booklore.repository.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.criteria.*;
+import lombok.AllArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Keyset-paginated book listing. Each page seeks past the sort key of the last row of the previous page instead of
+// using an offset, so every page costs the same index range scan no matter how deep the client has scrolled.
+@Service
+@AllArgsConstructor
+public class BookQueryService {
+
+    private final AuthenticationService authenticationService;
+    private final UserRepository userRepository;
+    private final LibraryRepository libraryRepository;
+    private final BookRepository bookRepository;
+    private final BookMetadataRepository bookMetadataRepository;
+    private final UserBookProgressRepository userBookProgressRepository;
+    private final BookMapper bookMapper;
+    private final ObjectMapper objectMapper;
+
+    private record Cursor(BookSortKey sort, SortDirection direction, List<Object> keys) {
+    }
+
+    @Transactional(readOnly = true)
+    public BookPage getBooks(BookQueryRequest request) {
+        BookLoreUser user = authenticationService.getAuthenticatedUser();
+        BookLoreUserEntity userEntity = userRepository.findById(user.getId()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Set<Long> libraryIds = userEntity.getPermissions().isPermissionAdmin()
+                ? new HashSet<>(libraryRepository.findAllIds())
+                : userEntity.getLibraries().stream().map(LibraryEntity::getId).collect(Collectors.toSet());
+        if (libraryIds.isEmpty()) {
+            return new BookPage(List.of(), null);
+        }
+
+        List<Object> after = request.getCursor() != null ? decodeCursor(request) : null;
+        List<BookEntity> rows = bookRepository.findBy(toSpecification(request, libraryIds, user.getId(), after),
+                query -> query.limit(request.getLimit() + 1).all());
+
+        boolean hasMore = rows.size() > request.getLimit();
+        List<BookEntity> books = hasMore ? rows.subList(0, request.getLimit()) : rows;
+        if (books.isEmpty()) {
+            return new BookPage(List.of(), null);
+        }
+
+        List<Long> bookIds = books.stream().map(BookEntity::getId).toList();
+        bookRepository.fetchShelvesByIdIn(bookIds);
+        bookMetadataRepository.fetchAuthorsByBookIdIn(bookIds);
+        bookMetadataRepository.fetchCategoriesByBookIdIn(bookIds);
+        bookMetadataRepository.fetchAwardsByBookIdIn(bookIds);
+        Map<Long, BookProgress> progressByBookId = userBookProgressRepository.findProgressByUserIdAndBookIdIn(user.getId(), bookIds).stream()
+                .collect(Collectors.toMap(BookProgress::getBookId, Function.identity()));
+
+        List<Book> page = books.stream()
+                .map(bookEntity -> {
+                    Book book = bookMapper.toBookWithDescription(bookEntity, request.isWithDescription());
+                    BookProgress progress = progressByBookId.get(bookEntity.getId());
+                    if (progress != null) {
+                        book.setLastReadTime(progress.getLastReadTime());
+                        book.setPdfProgress(progress.getPdfProgress());
+                        book.setEpubProgress(progress.getEpubProgress());
+                    }
+                    return book;
+                })
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(request, books.getLast()) : null;
+        return new BookPage(page, nextCursor);
+    }
+
+    private Specification<BookEntity> toSpecification(BookQueryRequest request, Set<Long> libraryIds, long userId, List<Object> after) {
+        return (root, query, cb) -> {
+            @SuppressWarnings("unchecked")
+            Join<BookEntity, BookMetadataEntity> metadata = (Join<BookEntity, BookMetadataEntity>) root.<BookEntity, BookMetadataEntity>fetch("metadata", JoinType.INNER);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(root.get("library").get("id").in(libraryIds));
+            if (request.getLibraryId() != null) {
+                predicates.add(cb.equal(root.get("library").get("id"), request.getLibraryId()));
+            }
+            if (request.getShelfId() != null) {
+                Join<BookEntity, ShelfEntity> shelf = root.join("shelves");
+                predicates.add(cb.equal(shelf.get("id"), request.getShelfId()));
+                predicates.add(cb.equal(shelf.get("user").get("id"), userId));
+            }
+            if (request.getAuthorId() != null) {
+                predicates.add(cb.equal(metadata.join("authors").get("id"), request.getAuthorId()));
+            }
+            if (request.getCategoryId() != null) {
+                predicates.add(cb.equal(metadata.join("categories").get("id"), request.getCategoryId()));
+            }
+            if (request.getLanguage() != null) {
+                predicates.add(cb.equal(metadata.get("language"), request.getLanguage()));
+            }
+            if (request.getReadStatus() != null) {
+                Subquery<Long> progress = query.subquery(Long.class);
+                Root<UserBookProgressEntity> progressRoot = progress.from(UserBookProgressEntity.class);
+                progress.select(progressRoot.get("id")).where(
+                        cb.equal(progressRoot.get("book").get("id"), root.get("id")),
+                        cb.equal(progressRoot.get("user").get("id"), userId),
+                        cb.isNotNull(progressRoot.get("lastReadTime")));
+                predicates.add(request.getReadStatus() == ReadStatus.STARTED ? cb.exists(progress) : cb.not(cb.exists(progress)));
+            }
+
+            boolean ascending = request.getDirection() == SortDirection.ASCENDING;
+            List<Expression<?>> keys = getSortExpressions(request.getSort(), root, metadata);
+            if (after != null) {
+                predicates.add(seekPast(cb, keys, after, 0, ascending));
+            }
+            query.orderBy(keys.stream().map(key -> ascending ? cb.asc(key) : cb.desc(key)).toList());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Rows strictly after the cursor in (key1, key2, ..., id) order. MariaDB sorts NULL lowest, so NULL keys come
+    // first when ascending and last when descending, and the comparisons below follow that placement.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPast(CriteriaBuilder cb, List<Expression<?>> keys, List<Object> values, int index, boolean ascending) {
+        Expression key = keys.get(index);
+        Object value = values.get(index);
+        Predicate beyond;
+        if (ascending) {
+            beyond = value == null ? cb.isNotNull(key) : cb.greaterThan(key, (Comparable) value);
+        } else {
+            beyond = value == null ? cb.disjunction() : cb.or(cb.lessThan(key, (Comparable) value), cb.isNull(key));
+        }
+        if (index == keys.size() - 1) {
+            return beyond;
+        }
+        Predicate same = value == null ? cb.isNull(key) : cb.equal(key, value);
+        return cb.or(beyond, cb.and(same, seekPast(cb, keys, values, index + 1, ascending)));
+    }
+
+    private List<Expression<?>> getSortExpressions(BookSortKey sort, Root<BookEntity> root, Join<BookEntity, BookMetadataEntity> metadata) {
+        return switch (sort) {
+            case TITLE -> List.of(metadata.get("title"), root.get("id"));
+            case ADDED_ON -> List.of(root.get("addedOn"), root.get("id"));
+            case AUTHOR -> List.of(metadata.get("authorSort"), root.get("id"));
+            case RATING -> List.of(metadata.get("rating"), root.get("id"));
+            case SERIES -> List.of(metadata.get("seriesName"), metadata.get("seriesNumber"), root.get("id"));
+        };
+    }
+
+    private List<Class<?>> getSortTypes(BookSortKey sort) {
+        return switch (sort) {
+            case TITLE, AUTHOR -> List.of(String.class, Long.class);
+            case ADDED_ON -> List.of(Instant.class, Long.class);
+            case RATING -> List.of(Double.class, Long.class);
+            case SERIES -> List.of(String.class, Integer.class, Long.class);
+        };
+    }
+
+    private List<Object> getSortValues(BookSortKey sort, BookEntity book) {
+        BookMetadataEntity metadata = book.getMetadata();
+        return switch (sort) {
+            case TITLE -> Arrays.asList(metadata.getTitle(), book.getId());
+            case ADDED_ON -> Arrays.asList(book.getAddedOn(), book.getId());
+            case AUTHOR -> Arrays.asList(metadata.getAuthorSort(), book.getId());
+            case RATING -> Arrays.asList(metadata.getRating(), book.getId());
+            case SERIES -> Arrays.asList(metadata.getSeriesName(), metadata.getSeriesNumber(), book.getId());
+        };
+    }
+
+    private String encodeCursor(BookQueryRequest request, BookEntity last) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Cursor(request.getSort(), request.getDirection(), getSortValues(request.getSort(), last)));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw ApiError.INTERNAL_SERVER_ERROR.createException("Failed to encode page cursor: " + e.getMessage());
+        }
+    }
+
+    private List<Object> decodeCursor(BookQueryRequest request) {
+        try {
+            JsonNode cursor = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(request.getCursor()), StandardCharsets.UTF_8));
+            List<Class<?>> types = getSortTypes(request.getSort());
+            JsonNode keys = cursor.path("keys");
+            if (!request.getSort().name().equals(cursor.path("sort").asText())
+                    || !request.getDirection().name().equals(cursor.path("direction").asText())
+                    || keys.size() != types.size()) {
+                throw ApiError.INVALID_CURSOR.createException();
+            }
+            List<Object> values = new ArrayList<>(types.size());
+            for (int i = 0; i < types.size(); i++) {
+                values.add(keys.get(i).isNull() ? null : objectMapper.treeToValue(keys.get(i), types.get(i)));
+            }
+            if (values.getLast() == null) {
+                throw ApiError.INVALID_CURSOR.createException();
+            }
+            return values;
+        } catch (IllegalArgumentException | IOException e) {
+            throw ApiError.INVALID_CURSOR.createException();
+        }
+    }
+}
@@ -8,27 +8,36 @@ import com.adityachandel.booklore.model.dto.request.ReadProgressRequest;
 import com.adityachandel.booklore.model.entity.*;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.*;
+import com.adityachandel.booklore.service.fileprocessor.CoverGenerationService;
 import com.adityachandel.booklore.util.FileService;
+import com.adityachandel.booklore.util.FileStreamingService;
+import com.adityachandel.booklore.util.ThumbnailPyramidService;
 import com.adityachandel.booklore.util.FileUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -37,10 +46,16 @@ import java.util.stream.Collectors;
 public class BooksService {
 
     private final BookRepository bookRepository;
+    private final BookMetadataRepository bookMetadataRepository;
+    private final LibraryRepository libraryRepository;
     private final PdfViewerPreferencesRepository pdfViewerPreferencesRepository;
     private final EpubViewerPreferencesRepository epubViewerPreferencesRepository;
     private final ShelfRepository shelfRepository;
     private final FileService fileService;
+    private final FileStreamingService fileStreamingService;
+    private final ThumbnailPyramidService thumbnailPyramidService;
+    private final CoverCacheService coverCacheService;
+    private final CoverGenerationService coverGenerationService;
     private final BookMapper bookMapper;
     private final UserRepository userRepository;
     private final UserBookProgressRepository userBookProgressRepository;
@@ -127,28 +142,42 @@ public class BooksService {
         return book;
     }
 
+    // Loads the whole listing with a fixed number of statements: books with their to-one associations, one
+    // fetch-join query per collection to initialize it inside this persistence context, and one progress query.
+    @Transactional(readOnly = true)
     public List<Book> getBooks(boolean withDescription) {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
         BookLoreUserEntity userEntity = userRepository.findById(user.getId()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        List<BookEntity> books;
+        Set<Long> libraryIds;
         if (userEntity.getPermissions().isPermissionAdmin()) {
-            books = bookRepository.findAll();
+            libraryIds = new HashSet<>(libraryRepository.findAllIds());
         } else {
-            Set<Long> userLibraryIds = userEntity.getLibraries().stream()
+            libraryIds = userEntity.getLibraries().stream()
                     .map(LibraryEntity::getId)
                     .collect(Collectors.toSet());
-            books = bookRepository.findByLibraryIdIn(userLibraryIds);
         }
+        if (libraryIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<BookEntity> books = bookRepository.findWithMetadataByLibraryIdIn(libraryIds);
+        bookRepository.fetchShelvesByLibraryIdIn(libraryIds);
+        bookMetadataRepository.fetchAuthorsByLibraryIdIn(libraryIds);
+        bookMetadataRepository.fetchCategoriesByLibraryIdIn(libraryIds);
+        bookMetadataRepository.fetchAwardsByLibraryIdIn(libraryIds);
+        Map<Long, BookProgress> progressByBookId = userBookProgressRepository.findProgressByUserId(user.getId()).stream()
+                .collect(Collectors.toMap(BookProgress::getBookId, Function.identity()));
 
         return books.stream()
                 .map(bookEntity -> {
-                    UserBookProgressEntity userProgress = userBookProgressRepository.findByUserIdAndBookId(user.getId(), bookEntity.getId())
-                            .orElse(new UserBookProgressEntity());
                     Book book = bookMapper.toBookWithDescription(bookEntity, withDescription);
-                    book.setLastReadTime(userProgress.getLastReadTime());
-                    book.setPdfProgress(userProgress.getPdfProgress());
-                    book.setEpubProgress(userProgress.getEpubProgress());
+                    BookProgress progress = progressByBookId.get(bookEntity.getId());
+                    if (progress != null) {
+                        book.setLastReadTime(progress.getLastReadTime());
+                        book.setPdfProgress(progress.getPdfProgress());
+                        book.setEpubProgress(progress.getEpubProgress());
+                    }
                     return book;
                 })
                 .collect(Collectors.toList());
@@ -185,9 +214,90 @@ public class BooksService {
         return bookEntities.stream().map(bookMapper::toBook).collect(Collectors.toList());
     }
 
-    public Resource getBookCover(long bookId) {
+    public ResponseEntity<Resource> getBookCover(long bookId, Integer size, Long version, HttpHeaders requestHeaders) {
+        int level = size != null ? thumbnailPyramidService.snapSize(size) : 0;
+        boolean accelRedirect = fileStreamingService.isAccelRedirectEnabled();
+        if (!accelRedirect) {
+            CoverCacheService.CachedCover cached = coverCacheService.get(bookId, level, version);
+            if (cached != null) {
+                String eTag = getCoverETag(bookId, level, cached.version());
+                CacheControl cacheControl = getCoverCacheControl(cached.version(), version);
+                if (fileStreamingService.isNotModified(requestHeaders, eTag, cached.version())) {
+                    return withCoverHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, cached.version(), cacheControl).build();
+                }
+                if (size != null) {
+                    thumbnailPyramidService.recordServed(size, cached.data().length);
+                }
+                return withCoverHeaders(ResponseEntity.ok(), eTag, cached.version(), cacheControl)
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .body(new ByteArrayResource(cached.data()));
+            }
+        }
+
+        long cacheGeneration = coverCacheService.getGeneration();
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
-        return fileService.getBookCover(bookEntity.getMetadata().getThumbnail());
+        Instant coverUpdatedOn = bookEntity.getMetadata().getCoverUpdatedOn();
+        long coverVersion = coverUpdatedOn != null ? coverUpdatedOn.toEpochMilli() : -1;
+        String eTag = getCoverETag(bookId, level, coverVersion);
+        CacheControl cacheControl = getCoverCacheControl(coverVersion, version);
+        if (fileStreamingService.isNotModified(requestHeaders, eTag, coverVersion)) {
+            return withCoverHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, coverVersion, cacheControl).build();
+        }
+
+        String thumbnail = bookEntity.getMetadata().getThumbnail();
+        if (thumbnail == null || thumbnail.isEmpty()) {
+            coverGenerationService.prioritize(bookEntity);
+        } else if (size != null) {
+            try {
+                Path sizedThumbnail = thumbnailPyramidService.getThumbnail(Path.of(thumbnail), size);
+                if (sizedThumbnail != null) {
+                    thumbnail = sizedThumbnail.toString();
+                }
+            } catch (IOException e) {
+                log.warn("Failed to generate {}px thumbnail for book {}: {}", size, bookId, e.getMessage());
+            }
+        }
+        Resource cover = fileService.getBookCover(thumbnail);
+        try {
+            Optional<ResponseEntity.BodyBuilder> redirect = accelRedirect && cover.isFile()
+                    ? fileStreamingService.accelRedirect(cover.getFile().toPath(), null)
+                    : Optional.empty();
+            if (redirect.isPresent()) {
+                if (size != null) {
+                    thumbnailPyramidService.recordServed(size, cover.contentLength());
+                }
+                return withCoverHeaders(redirect.get(), eTag, coverVersion, cacheControl).build();
+            }
+            byte[] data = cover.getContentAsByteArray();
+            coverCacheService.put(bookId, level, coverVersion, data, cacheGeneration);
+            if (size != null) {
+                thumbnailPyramidService.recordServed(size, data.length);
+            }
+            return withCoverHeaders(ResponseEntity.ok(), eTag, coverVersion, cacheControl)
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .body(new ByteArrayResource(data));
+        } catch (IOException e) {
+            throw ApiError.IMAGE_NOT_FOUND.createException(bookId);
+        }
+    }
+
+    // Books without a cover timestamp have version -1 and get no Last-Modified, only the ETag
+    private <B extends ResponseEntity.HeadersBuilder<B>> B withCoverHeaders(B builder, String eTag, long coverVersion, CacheControl cacheControl) {
+        builder.eTag(eTag).cacheControl(cacheControl);
+        if (coverVersion != -1) {
+            builder.lastModified(coverVersion);
+        }
+        return builder;
+    }
+
+    private String getCoverETag(long bookId, int level, long coverVersion) {
+        return "\"" + bookId + "-" + coverVersion + "-" + level + "\"";
+    }
+
+    private CacheControl getCoverCacheControl(long coverVersion, Long requestedVersion) {
+        return coverVersion != -1 && requestedVersion != null && requestedVersion == coverVersion
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
     }
 
     @Transactional
@@ -206,26 +316,21 @@ public class BooksService {
         userBookProgressRepository.save(userBookProgress);
     }
 
-    public ResponseEntity<Resource> downloadBook(Long bookId) {
+    public ResponseEntity<StreamingResponseBody> downloadBook(Long bookId, HttpHeaders requestHeaders) {
+        BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
         try {
-            BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
-            Path file = Paths.get(FileUtils.getBookFullPath(bookEntity)).toAbsolutePath().normalize();
-            Resource resource = new UrlResource(file.toUri());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
-                    .body(resource);
-        } catch (Exception e) {
+            return fileStreamingService.serveFile(getBookPath(bookEntity), true, requestHeaders);
+        } catch (IOException e) {
             throw ApiError.FAILED_TO_DOWNLOAD_FILE.createException(bookId);
         }
     }
 
-    public ResponseEntity<ByteArrayResource> getBookContent(long bookId) throws IOException {
+    public ResponseEntity<StreamingResponseBody> getBookContent(long bookId, HttpHeaders requestHeaders) throws IOException {
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
-        try (FileInputStream inputStream = new FileInputStream(FileUtils.getBookFullPath(bookEntity))) {
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .body(new ByteArrayResource(inputStream.readAllBytes()));
-        }
+        return fileStreamingService.serveFile(getBookPath(bookEntity), false, requestHeaders);
+    }
+
+    private Path getBookPath(BookEntity bookEntity) {
+        return Paths.get(FileUtils.getBookFullPath(bookEntity)).toAbsolutePath().normalize();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class CoverCacheService {
+
+    private final long maxBytes;
+    private final Map<CoverKey, CachedCover> covers = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Long, Long> currentVersions = new ConcurrentHashMap<>();
+    private long bytesHeld;
+    private volatile long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter updateEvictions;
+
+    public CoverCacheService(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.maxBytes = appProperties.getCoverCacheMaxBytes();
+        this.hits = Counter.builder("booklore.cover.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("booklore.cover.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("booklore.cover.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.updateEvictions = Counter.builder("booklore.cover.cache.evictions").tag("cause", "update").register(meterRegistry);
+        meterRegistry.gauge("booklore.cover.cache.bytes", this, CoverCacheService::getBytesHeld);
+        meterRegistry.gauge("booklore.cover.cache.hit.ratio", this, CoverCacheService::getHitRatio);
+    }
+
+    // A hit needs no database lookup: the version of the cover currently on disk is remembered per book, and a
+    // request for any other version falls through to the regular path.
+    public CachedCover get(long bookId, int size, Long requestedVersion) {
+        Long currentVersion = currentVersions.get(bookId);
+        CachedCover cover = null;
+        if (currentVersion != null && (requestedVersion == null || requestedVersion.equals(currentVersion))) {
+            synchronized (covers) {
+                cover = covers.get(new CoverKey(bookId, size, currentVersion));
+            }
+        }
+        if (cover != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cover;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    // The generation is the value of getGeneration() before the cover was loaded; if any eviction happened in
+    // between, the loaded cover may predate an update and is not cached.
+    public void put(long bookId, int size, long version, byte[] data, long loadedGeneration) {
+        if (data.length > maxBytes) {
+            return;
+        }
+        synchronized (covers) {
+            if (generation != loadedGeneration) {
+                return;
+            }
+            Long currentVersion = currentVersions.get(bookId);
+            if (currentVersion != null && currentVersion != version) {
+                removeBook(bookId);
+            }
+            currentVersions.put(bookId, version);
+            CachedCover previous = covers.put(new CoverKey(bookId, size, version), new CachedCover(version, data));
+            if (previous != null) {
+                bytesHeld -= previous.data().length;
+            }
+            bytesHeld += data.length;
+            Iterator<Map.Entry<CoverKey, CachedCover>> eldest = covers.entrySet().iterator();
+            while (bytesHeld > maxBytes && eldest.hasNext()) {
+                bytesHeld -= eldest.next().getValue().data().length;
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    public void evict(long bookId) {
+        synchronized (covers) {
+            generation++;
+            updateEvictions.increment(removeBook(bookId));
+            currentVersions.remove(bookId);
+        }
+    }
+
+    public void evict(Collection<Long> bookIds) {
+        Set<Long> ids = new HashSet<>(bookIds);
+        synchronized (covers) {
+            generation++;
+            int removed = 0;
+            Iterator<Map.Entry<CoverKey, CachedCover>> entries = covers.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<CoverKey, CachedCover> entry = entries.next();
+                if (ids.contains(entry.getKey().bookId())) {
+                    bytesHeld -= entry.getValue().data().length;
+                    entries.remove();
+                    removed++;
+                }
+            }
+            updateEvictions.increment(removed);
+            currentVersions.keySet().removeAll(ids);
+        }
+    }
+
+    // Evicting inside the transaction that changes the cover would let a concurrent request reload the old cover
+    // and cache it again before the change commits, so the eviction is deferred until after the commit.
+    public void evictAfterCommit(long bookId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(bookId);
+                }
+            });
+        } else {
+            evict(bookId);
+        }
+    }
+
+    public long getBytesHeld() {
+        synchronized (covers) {
+            return bytesHeld;
+        }
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private int removeBook(long bookId) {
+        int removed = 0;
+        Iterator<Map.Entry<CoverKey, CachedCover>> entries = covers.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<CoverKey, CachedCover> entry = entries.next();
+            if (entry.getKey().bookId() == bookId) {
+                bytesHeld -= entry.getValue().data().length;
+                entries.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private record CoverKey(long bookId, int size, long version) {
+    }
+
+    public record CachedCover(long version, byte[] data) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.model.dto.CoverVersion;
+import com.adityachandel.booklore.repository.BookMetadataRepository;
+import com.adityachandel.booklore.util.CoverStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class CoverGarbageCollector {
+
+    private final BookMetadataRepository bookMetadataRepository;
+    private final CoverStorageService coverStorageService;
+    private final AppProperties appProperties;
+    private final Counter removedCovers;
+    private final Counter migratedCovers;
+
+    public CoverGarbageCollector(BookMetadataRepository bookMetadataRepository, CoverStorageService coverStorageService,
+                                 AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.bookMetadataRepository = bookMetadataRepository;
+        this.coverStorageService = coverStorageService;
+        this.appProperties = appProperties;
+        this.removedCovers = meterRegistry.counter("booklore.cover.gc.removed");
+        this.migratedCovers = meterRegistry.counter("booklore.cover.gc.migrated");
+    }
+
+    @Scheduled(initialDelayString = "PT5M", fixedDelayString = "${app.cover-gc-interval:PT6H}")
+    public void collect() {
+        long start = System.currentTimeMillis();
+        Duration gracePeriod = appProperties.getCoverGcGracePeriod();
+        List<CoverVersion> legacyCovers = bookMetadataRepository.findLegacyCovers();
+        int migrated = migrateLegacyCovers(legacyCovers);
+        int removed = coverStorageService.sweep(bookMetadataRepository.findReferencedCoverHashes(), bookMetadataRepository::existsByCoverHash, gracePeriod);
+        // Books migrated above still protect their legacy directory until the next run, which then removes it
+        Set<Long> legacyReferences = legacyCovers.stream()
+                .map(CoverVersion::getBookId)
+                .collect(Collectors.toSet());
+        removed += coverStorageService.sweepLegacy(legacyReferences, gracePeriod);
+        migratedCovers.increment(migrated);
+        removedCovers.increment(removed);
+        log.info("Cover GC migrated {} legacy covers and removed {} unreferenced cover directories in {} ms", migrated, removed, System.currentTimeMillis() - start);
+    }
+
+    private int migrateLegacyCovers(List<CoverVersion> legacyCovers) {
+        int migrated = 0;
+        for (CoverVersion legacy : legacyCovers) {
+            Path legacyCover = Path.of(legacy.getThumbnail());
+            if (!Files.exists(legacyCover)) {
+                continue;
+            }
+            try {
+                String hash = coverStorageService.importLegacyCover(legacyCover);
+                String thumbnail = coverStorageService.getCoverPath(hash).toString();
+                migrated += bookMetadataRepository.moveLegacyCover(legacy.getBookId(), legacy.getThumbnail(), thumbnail, hash);
+            } catch (Exception e) {
+                log.warn("Failed to migrate legacy cover of book {}: {}", legacy.getBookId(), e.getMessage());
+            }
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,178 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.dto.CoverVersion;
+import com.adityachandel.booklore.repository.BookMetadataRepository;
+import com.adityachandel.booklore.util.FileService;
+import com.adityachandel.booklore.util.FileStreamingService;
+import com.adityachandel.booklore.util.ImageScaler;
+import com.adityachandel.booklore.util.ThumbnailPyramidService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class CoverSpriteService {
+
+    private static final int MAX_BOOKS = 200;
+    private static final int MAX_SPRITE_WIDTH = 4096;
+    // Bounds the decoded sprite to 32 MB (4 bytes per TYPE_INT_RGB pixel), which limits how many books fit at the
+    // larger sizes: all 200 at 80 and 160, fewer at 320 and 640
+    private static final long MAX_SPRITE_PIXELS = 8L * 1024 * 1024;
+    private static final long MAX_CACHED_BYTES = 16L * 1024 * 1024;
+
+    private final BookMetadataRepository bookMetadataRepository;
+    private final ThumbnailPyramidService thumbnailPyramidService;
+    private final FileService fileService;
+    private final FileStreamingService fileStreamingService;
+    private final Map<String, byte[]> sprites = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public CoverSpriteService(BookMetadataRepository bookMetadataRepository, ThumbnailPyramidService thumbnailPyramidService,
+                              FileService fileService, FileStreamingService fileStreamingService) {
+        this.bookMetadataRepository = bookMetadataRepository;
+        this.thumbnailPyramidService = thumbnailPyramidService;
+        this.fileService = fileService;
+        this.fileStreamingService = fileStreamingService;
+    }
+
+    // Lays the covers out row by row in request order; cell i sits at column i % columns and row i / columns.
+    // The cache key includes every cover version, so any cover update yields a new sprite and a new ETag.
+    public ResponseEntity<Resource> getSprite(List<Long> bookIds, int size, HttpHeaders requestHeaders) {
+        int cellWidth = thumbnailPyramidService.snapSize(size);
+        int cellHeight = cellWidth * 7 / 5;
+        int maxBooks = (int) Math.min(MAX_BOOKS, MAX_SPRITE_PIXELS / ((long) cellWidth * cellHeight));
+        if (bookIds.isEmpty() || bookIds.size() > maxBooks) {
+            throw ApiError.BAD_REQUEST.createException("Between 1 and " + maxBooks + " book ids are required for size " + cellWidth);
+        }
+        int columns = Math.max(1, Math.min(bookIds.size(), MAX_SPRITE_WIDTH / cellWidth));
+
+        Map<Long, CoverVersion> versions = bookMetadataRepository.findCoverVersions(bookIds).stream()
+                .collect(Collectors.toMap(CoverVersion::getBookId, Function.identity()));
+        String key = getKey(bookIds, cellWidth, versions);
+        String eTag = "\"sprite-" + key + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        headers.set("X-Sprite-Columns", String.valueOf(columns));
+        headers.set("X-Sprite-Cell-Width", String.valueOf(cellWidth));
+        headers.set("X-Sprite-Cell-Height", String.valueOf(cellHeight));
+        if (fileStreamingService.isNotModified(requestHeaders, eTag, -1)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        byte[] sprite;
+        synchronized (sprites) {
+            sprite = sprites.get(key);
+        }
+        if (sprite == null) {
+            sprite = buildSprite(bookIds, versions, columns, cellWidth, cellHeight);
+            cacheSprite(key, sprite);
+        }
+        headers.setContentType(MediaType.IMAGE_JPEG);
+        headers.setContentLength(sprite.length);
+        return ResponseEntity.ok().headers(headers).body(new ByteArrayResource(sprite));
+    }
+
+    private void cacheSprite(String key, byte[] sprite) {
+        if (sprite.length > MAX_CACHED_BYTES) {
+            return;
+        }
+        synchronized (sprites) {
+            byte[] previous = sprites.put(key, sprite);
+            if (previous != null) {
+                cachedBytes -= previous.length;
+            }
+            cachedBytes += sprite.length;
+            Iterator<byte[]> eldest = sprites.values().iterator();
+            while (cachedBytes > MAX_CACHED_BYTES && eldest.hasNext()) {
+                cachedBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private byte[] buildSprite(List<Long> bookIds, Map<Long, CoverVersion> versions, int columns, int cellWidth, int cellHeight) {
+        int rows = (bookIds.size() + columns - 1) / columns;
+        BufferedImage sprite = new BufferedImage(columns * cellWidth, rows * cellHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = sprite.createGraphics();
+        BufferedImage missingCover = null;
+        for (int i = 0; i < bookIds.size(); i++) {
+            BufferedImage cover = readCover(bookIds.get(i), versions.get(bookIds.get(i)), cellWidth);
+            if (cover == null) {
+                if (missingCover == null) {
+                    missingCover = readMissingCover(cellWidth, cellHeight);
+                }
+                cover = missingCover;
+            }
+            if (cover != null) {
+                if (cover.getWidth() != cellWidth || cover.getHeight() != cellHeight) {
+                    cover = ImageScaler.scale(cover, cellWidth, cellHeight);
+                }
+                g2d.drawImage(cover, (i % columns) * cellWidth, (i / columns) * cellHeight, null);
+            }
+        }
+        g2d.dispose();
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(sprite, "JPEG", output);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw ApiError.INTERNAL_SERVER_ERROR.createException("Failed to encode cover sprite: " + e.getMessage());
+        }
+    }
+
+    private BufferedImage readCover(long bookId, CoverVersion version, int size) {
+        if (version == null || version.getThumbnail() == null || version.getThumbnail().isEmpty()) {
+            return null;
+        }
+        try {
+            Path thumbnail = thumbnailPyramidService.getThumbnail(Path.of(version.getThumbnail()), size);
+            return thumbnail != null ? ImageIO.read(thumbnail.toFile()) : null;
+        } catch (IOException e) {
+            log.warn("Failed to read cover for book {}: {}", bookId, e.getMessage());
+            return null;
+        }
+    }
+
+    private BufferedImage readMissingCover(int cellWidth, int cellHeight) {
+        try {
+            BufferedImage missing = ImageIO.read(Path.of(fileService.getMissingThumbnailPath()).toFile());
+            return missing != null ? ImageScaler.scale(missing, cellWidth, cellHeight) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String getKey(List<Long> bookIds, int cellWidth, Map<Long, CoverVersion> versions) {
+        StringBuilder key = new StringBuilder().append(cellWidth);
+        for (Long bookId : bookIds) {
+            CoverVersion version = versions.get(bookId);
+            key.append(',').append(bookId).append('@')
+                    .append(version != null && version.getCoverUpdatedOn() != null ? version.getCoverUpdatedOn().toEpochMilli() : -1);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
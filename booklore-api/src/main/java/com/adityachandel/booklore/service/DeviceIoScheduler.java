@@ -0,0 +1,130 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+@Slf4j
+@Service
+public class DeviceIoScheduler {
+
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DeviceMetrics> deviceMetrics = new ConcurrentHashMap<>();
+
+    public DeviceIoScheduler(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Runs the task for every item, with items on different devices processed in parallel and at most
+    // the configured per-device concurrency on any one device (maxConcurrency when none is configured).
+    // maxConcurrency caps the total across devices. The task returns the number of bytes it read, which feeds
+    // the per-device throughput metrics.
+    public <T> void execute(Collection<T> items, Function<T, LibraryPathEntity> libraryPathOf, int maxConcurrency, ToLongFunction<T> task) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<String, List<T>> itemsByDevice = groupByDevice(items, libraryPathOf);
+        Semaphore globalPermits = new Semaphore(Math.max(1, maxConcurrency));
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            itemsByDevice.forEach((device, deviceItems) ->
+                    executor.submit(() -> runOnDevice(device, deviceItems, globalPermits, maxConcurrency, task, failure)));
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    public String getDevice(LibraryPathEntity libraryPathEntity) {
+        Path path = Path.of(libraryPathEntity.getPath());
+        try {
+            FileStore fileStore = Files.getFileStore(path);
+            return fileStore.name();
+        } catch (IOException e) {
+            log.warn("Could not resolve file store for {}: {}", path, e.getMessage());
+            return path.toString();
+        }
+    }
+
+    private <T> Map<String, List<T>> groupByDevice(Collection<T> items, Function<T, LibraryPathEntity> libraryPathOf) {
+        Map<LibraryPathEntity, String> devicesByPath = new IdentityHashMap<>();
+        Map<String, List<T>> itemsByDevice = new LinkedHashMap<>();
+        for (T item : items) {
+            String device = devicesByPath.computeIfAbsent(libraryPathOf.apply(item), this::getDevice);
+            itemsByDevice.computeIfAbsent(device, k -> new ArrayList<>()).add(item);
+        }
+        if (itemsByDevice.size() > 1) {
+            log.info("Scheduling I/O across {} devices: {}", itemsByDevice.size(), itemsByDevice.keySet());
+        }
+        return itemsByDevice;
+    }
+
+    private <T> void runOnDevice(String device, List<T> items, Semaphore globalPermits, int maxConcurrency, ToLongFunction<T> task, AtomicReference<RuntimeException> failure) {
+        DeviceMetrics metrics = deviceMetrics.computeIfAbsent(device, DeviceMetrics::new);
+        Semaphore devicePermits = new Semaphore(Math.max(1, Math.min(getDeviceConcurrency(device, maxConcurrency), maxConcurrency)));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T item : items) {
+                if (failure.get() != null) {
+                    break;
+                }
+                devicePermits.acquireUninterruptibly();
+                globalPermits.acquireUninterruptibly();
+                executor.submit(() -> {
+                    metrics.active.incrementAndGet();
+                    try {
+                        long bytesRead = task.applyAsLong(item);
+                        metrics.files.increment();
+                        metrics.bytes.increment(bytesRead);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        metrics.active.decrementAndGet();
+                        globalPermits.release();
+                        devicePermits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private int getDeviceConcurrency(String device, int maxConcurrency) {
+        Integer override = appProperties.getDeviceConcurrencyOverrides().get(device);
+        if (override != null) {
+            return override;
+        }
+        return appProperties.getDeviceConcurrency() != null ? appProperties.getDeviceConcurrency() : maxConcurrency;
+    }
+
+    private class DeviceMetrics {
+
+        private final Counter files;
+        private final Counter bytes;
+        private final AtomicInteger active = new AtomicInteger();
+
+        DeviceMetrics(String device) {
+            this.files = Counter.builder("booklore.io.device.files").tag("device", device).register(meterRegistry);
+            this.bytes = Counter.builder("booklore.io.device.bytes").baseUnit("bytes").tag("device", device).register(meterRegistry);
+            meterRegistry.gauge("booklore.io.device.active", List.of(Tag.of("device", device)), active);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.util.FileUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+@Slf4j
+@Service
+public class EpubEntryService {
+
+    private static final int MAX_OPEN_BOOKS = 64;
+
+    private final BookRepository bookRepository;
+    private final long maxBytes;
+
+    // LRU of open archives. An open ZipFile keeps the archive's central directory on the heap, which grows with the
+    // number of entries rather than the file size, so the map is bounded by the total of those directories and, for
+    // file handles, by MAX_OPEN_BOOKS. The map owns one reference to each archive and every entry lookup or open entry
+    // stream holds another, so an evicted or replaced archive is closed once the last stream reading from it is closed.
+    private final Map<Long, OpenEpub> openBooks = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesHeld;
+
+    public EpubEntryService(BookRepository bookRepository, AppProperties appProperties) {
+        this.bookRepository = bookRepository;
+        this.maxBytes = appProperties.getEpubCacheMaxBytes();
+    }
+
+    public ResponseEntity<Resource> getEntry(long bookId, String entryPath) {
+        BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
+        if (bookEntity.getBookType() != BookFileType.EPUB) {
+            throw ApiError.BAD_REQUEST.createException("Book is not an EPUB: " + bookId);
+        }
+        String entryName = entryPath.startsWith("/") ? entryPath.substring(1) : entryPath;
+        OpenEpub openEpub = getOpenEpub(bookEntity);
+        try {
+            ZipEntry entry = openEpub.zipFile.getEntry(entryName);
+            if (entry == null || entry.isDirectory()) {
+                throw ApiError.EPUB_ENTRY_NOT_FOUND.createException(entryName, bookId);
+            }
+            String eTag = String.format("\"%d-%x-%08x-%d\"", bookId, openEpub.lastModified, entry.getCrc(), entry.getSize());
+            return ResponseEntity.ok()
+                    .contentType(MediaTypeFactory.getMediaType(entryName).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                    .eTag(eTag)
+                    .lastModified(openEpub.lastModified)
+                    .body(new EpubEntryResource(openEpub, entry));
+        } finally {
+            openEpub.release();
+        }
+    }
+
+    // Returns the archive with a reference held for the caller. The archive is opened outside the map's lock so a
+    // slow open of one book does not hold up requests for the others.
+    private OpenEpub getOpenEpub(BookEntity bookEntity) {
+        Path path = Path.of(FileUtils.getBookFullPath(bookEntity));
+        try {
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            long size = Files.size(path);
+            OpenEpub cached = getCached(bookEntity.getId(), lastModified, size);
+            if (cached != null) {
+                return cached;
+            }
+            OpenEpub opened = new OpenEpub(new ZipFile(path.toFile()), lastModified, size);
+            // Too large to keep: the caller holds the only reference, so it is closed once the request is done
+            if (opened.heapBytes > maxBytes) {
+                return opened;
+            }
+            synchronized (openBooks) {
+                OpenEpub current = openBooks.get(bookEntity.getId());
+                if (current != null && current.matches(lastModified, size) && current.retain()) {
+                    opened.release();
+                    return current;
+                }
+                OpenEpub replaced = openBooks.put(bookEntity.getId(), opened);
+                if (replaced != null) {
+                    bytesHeld -= replaced.heapBytes;
+                    replaced.release();
+                }
+                bytesHeld += opened.heapBytes;
+                opened.retain();
+                evictOverflow();
+                return opened;
+            }
+        } catch (IOException e) {
+            log.error("Failed to open EPUB {}: {}", path, e.getMessage());
+            throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<OpenEpub> eldest = openBooks.values().iterator();
+        while ((bytesHeld > maxBytes || openBooks.size() > MAX_OPEN_BOOKS) && eldest.hasNext()) {
+            OpenEpub evicted = eldest.next();
+            eldest.remove();
+            bytesHeld -= evicted.heapBytes;
+            evicted.release();
+        }
+    }
+
+    private OpenEpub getCached(long bookId, long lastModified, long size) {
+        synchronized (openBooks) {
+            OpenEpub openEpub = openBooks.get(bookId);
+            return openEpub != null && openEpub.matches(lastModified, size) && openEpub.retain() ? openEpub : null;
+        }
+    }
+
+    private static final class OpenEpub {
+
+        private final ZipFile zipFile;
+        private final long lastModified;
+        private final long size;
+        private final long heapBytes;
+        private int references = 1;
+
+        OpenEpub(ZipFile zipFile, long lastModified, long size) {
+            this.zipFile = zipFile;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.heapBytes = centralDirectoryBytes(zipFile);
+        }
+
+        // Estimate of what ZipFile holds per entry: the central directory header with its name, extra field and
+        // comment, plus its slot in the lookup table
+        private static long centralDirectoryBytes(ZipFile zipFile) {
+            long bytes = 0;
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                bytes += 46 + 12 + entry.getName().getBytes(StandardCharsets.UTF_8).length;
+                bytes += entry.getExtra() == null ? 0 : entry.getExtra().length;
+                bytes += entry.getComment() == null ? 0 : entry.getComment().getBytes(StandardCharsets.UTF_8).length;
+            }
+            return bytes;
+        }
+
+        boolean matches(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size;
+        }
+
+        synchronized boolean retain() {
+            if (references == 0) {
+                return false;
+            }
+            references++;
+            return true;
+        }
+
+        synchronized void release() {
+            if (--references == 0) {
+                try {
+                    zipFile.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close EPUB {}: {}", zipFile.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static class EpubEntryResource extends AbstractResource {
+
+        private final OpenEpub openEpub;
+        private final ZipEntry entry;
+
+        EpubEntryResource(OpenEpub openEpub, ZipEntry entry) {
+            this.openEpub = openEpub;
+            this.entry = entry;
+        }
+
+        // Reads through the cached archive while holding a reference to it. If the archive was evicted and closed
+        // since the lookup, the entry is read from a private copy that is closed with the stream.
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (openEpub.retain()) {
+                return streamClosing(openEpub.zipFile.getInputStream(entry), openEpub::release);
+            }
+            ZipFile zipFile = new ZipFile(openEpub.zipFile.getName());
+            ZipEntry current = zipFile.getEntry(entry.getName());
+            if (current == null) {
+                zipFile.close();
+                throw new IOException("EPUB entry no longer exists: " + entry.getName());
+            }
+            return streamClosing(zipFile.getInputStream(current), () -> {
+                try {
+                    zipFile.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close EPUB {}: {}", zipFile.getName(), e.getMessage());
+                }
+            });
+        }
+
+        @Override
+        public long contentLength() {
+            return entry.getSize();
+        }
+
+        @Override
+        public long lastModified() {
+            return entry.getTime();
+        }
+
+        @Override
+        public String getFilename() {
+            String name = entry.getName();
+            return name.substring(name.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public String getDescription() {
+            return "EPUB entry [" + entry.getName() + "] in " + openEpub.zipFile.getName();
+        }
+
+        private static InputStream streamClosing(InputStream stream, Runnable onClose) {
+            return new FilterInputStream(stream) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+                    try {
+                        super.close();
+                    } finally {
+                        onClose.run();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.service;
 
 import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.exception.FileProcessingException;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
@@ -57,7 +58,13 @@ public class FileUploadService {
         try {
             file.transferTo(storageFile);
             log.info("File uploaded successfully: {}", storageFile.getAbsolutePath());
-            Book book = processFile(file, libraryEntity, libraryPathEntity, storageFile);
+            Book book;
+            try {
+                book = processFile(file, libraryEntity, libraryPathEntity, storageFile);
+            } catch (FileProcessingException e) {
+                log.warn(e.getMessage());
+                book = e.getBook();
+            }
             notificationService.sendMessage(Topic.BOOK_ADD, book);
             log.info("Book processed successfully: {}", book.getMetadata().getTitle());
             return book;
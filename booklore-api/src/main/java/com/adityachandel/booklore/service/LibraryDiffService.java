@@ -0,0 +1,161 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.model.dto.settings.BookFileSnapshot;
+import com.adityachandel.booklore.model.dto.settings.LibraryDiff;
+import com.adityachandel.booklore.model.dto.settings.LibraryFile;
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.util.FileUtils;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class LibraryDiffService {
+
+    private final BookRepository bookRepository;
+    private final LibraryFileScanner libraryFileScanner;
+
+    @Transactional(readOnly = true)
+    public LibraryDiff diffLibrary(LibraryEntity libraryEntity) throws IOException {
+        LibraryDiff diff = new LibraryDiff();
+        List<LibraryPathEntity> libraryPaths = new ArrayList<>(libraryEntity.getLibraryPaths());
+        libraryPaths.sort(Comparator.comparing(LibraryPathEntity::getId));
+        try {
+            for (LibraryPathEntity libraryPathEntity : libraryPaths) {
+                try (Stream<LibraryFile> files = libraryFileScanner.streamLibraryFiles(libraryEntity, libraryPathEntity);
+                     Stream<BookFileSnapshot> books = bookRepository.streamBookFilesByLibraryPathId(libraryPathEntity.getId())) {
+                    mergeJoin(files.iterator(), books.iterator(), diff);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        resolveMovedFiles(diff);
+        return diff;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void applyFileUpdates(LibraryDiff diff) {
+        for (LibraryFile movedFile : diff.getMovedFiles()) {
+            bookRepository.updateFileLocation(movedFile.getBookId(), movedFile.getLibraryPathEntity(), movedFile.getFileSubPath(), movedFile.getFileName());
+        }
+        for (LibraryFile libraryFile : diff.getFingerprintUpdates()) {
+            bookRepository.updateFileFingerprint(libraryFile.getBookId(), libraryFile.getFileSizeBytes(), libraryFile.getFileModifiedMs(), libraryFile.getFileHash());
+        }
+    }
+
+    private void mergeJoin(Iterator<LibraryFile> files, Iterator<BookFileSnapshot> books, LibraryDiff diff) {
+        LibraryFile file = files.hasNext() ? files.next() : null;
+        BookFileSnapshot book = books.hasNext() ? books.next() : null;
+        while (file != null || book != null) {
+            int comparison;
+            if (file == null) {
+                comparison = 1;
+            } else if (book == null) {
+                comparison = -1;
+            } else {
+                comparison = compare(file, book);
+            }
+            if (comparison < 0) {
+                diff.getNewFiles().add(file);
+                file = files.hasNext() ? files.next() : null;
+            } else if (comparison > 0) {
+                diff.getRemovedBooks().add(book);
+                book = books.hasNext() ? books.next() : null;
+            } else {
+                compareFingerprint(file, book, diff);
+                file = files.hasNext() ? files.next() : null;
+                book = books.hasNext() ? books.next() : null;
+            }
+        }
+    }
+
+    private int compare(LibraryFile file, BookFileSnapshot book) {
+        int comparison = FileUtils.compareCodePoints(file.getFileSubPath(), book.getFileSubPath());
+        return comparison != 0 ? comparison : FileUtils.compareCodePoints(file.getFileName(), book.getFileName());
+    }
+
+    private void compareFingerprint(LibraryFile file, BookFileSnapshot book, LibraryDiff diff) {
+        Path path = file.getFullPath();
+        try {
+            file.setBookId(book.getId());
+            file.setFileSizeBytes(Files.size(path));
+            file.setFileModifiedMs(FileUtils.getLastModified(path));
+            if (book.getFileHash() == null) {
+                file.setFileHash(FileUtils.computePartialHash(path));
+                diff.getFingerprintUpdates().add(file);
+                return;
+            }
+            if (file.getFileSizeBytes().equals(book.getFileSizeBytes()) && file.getFileModifiedMs().equals(book.getFileModifiedMs())) {
+                return;
+            }
+            file.setFileHash(FileUtils.computePartialHash(path));
+            if (file.getFileHash().equals(book.getFileHash())) {
+                diff.getFingerprintUpdates().add(file);
+            } else {
+                diff.getChangedFiles().add(file);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to fingerprint file {}: {}", path, e.getMessage());
+        }
+    }
+
+    // A new file matches a vanished book either by content hash or, since file names are unique per library, by name
+    private void resolveMovedFiles(LibraryDiff diff) {
+        if (diff.getNewFiles().isEmpty() || diff.getRemovedBooks().isEmpty()) {
+            return;
+        }
+        Map<String, BookFileSnapshot> removedByHash = new HashMap<>();
+        Map<String, BookFileSnapshot> removedByName = new HashMap<>();
+        for (BookFileSnapshot removedBook : diff.getRemovedBooks()) {
+            if (removedBook.getFileHash() != null) {
+                removedByHash.putIfAbsent(removedBook.getFileHash(), removedBook);
+            }
+            removedByName.putIfAbsent(removedBook.getFileName(), removedBook);
+        }
+        Set<Long> matchedBookIds = new HashSet<>();
+        Iterator<LibraryFile> newFiles = diff.getNewFiles().iterator();
+        while (newFiles.hasNext()) {
+            LibraryFile file = newFiles.next();
+            Path path = file.getFullPath();
+            try {
+                file.setFileSizeBytes(Files.size(path));
+                file.setFileModifiedMs(FileUtils.getLastModified(path));
+                file.setFileHash(FileUtils.computePartialHash(path));
+            } catch (IOException e) {
+                log.warn("Unable to fingerprint file {}: {}", path, e.getMessage());
+                continue;
+            }
+            BookFileSnapshot movedBook = removedByHash.get(file.getFileHash());
+            if (movedBook == null || matchedBookIds.contains(movedBook.getId())) {
+                movedBook = removedByName.get(file.getFileName());
+            }
+            if (movedBook == null || !matchedBookIds.add(movedBook.getId())) {
+                continue;
+            }
+            newFiles.remove();
+            file.setBookId(movedBook.getId());
+            if (movedBook.getFileHash() == null || movedBook.getFileHash().equals(file.getFileHash())) {
+                log.info("Book {} moved from {}/{} to {}/{}", movedBook.getId(), movedBook.getFileSubPath(), movedBook.getFileName(), file.getFileSubPath(), file.getFileName());
+                diff.getMovedFiles().add(file);
+                diff.getFingerprintUpdates().add(file);
+            } else {
+                diff.getChangedFiles().add(file);
+            }
+        }
+        diff.getRemovedBooks().removeIf(book -> matchedBookIds.contains(book.getId()));
+    }
+}
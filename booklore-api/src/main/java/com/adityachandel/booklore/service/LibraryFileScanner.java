@@ -0,0 +1,88 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.model.dto.settings.LibraryFile;
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.util.FileUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+public class LibraryFileScanner {
+
+    public Stream<LibraryFile> streamLibraryFiles(LibraryEntity libraryEntity, LibraryPathEntity libraryPathEntity) {
+        Iterator<LibraryFile> iterator = new SortedLibraryFileIterator(libraryEntity, libraryPathEntity);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Emits files ordered by (sub path, file name). Directories wait in a priority queue keyed by sub path, which
+    // is always smaller than the sub path of anything below it, so only one directory listing is held at a time.
+    private static class SortedLibraryFileIterator implements Iterator<LibraryFile> {
+
+        private final LibraryEntity libraryEntity;
+        private final LibraryPathEntity libraryPathEntity;
+        private final Path rootPath;
+        private final PriorityQueue<String> pendingDirectories = new PriorityQueue<>(FileUtils::compareCodePoints);
+        private final Deque<LibraryFile> bufferedFiles = new ArrayDeque<>();
+
+        SortedLibraryFileIterator(LibraryEntity libraryEntity, LibraryPathEntity libraryPathEntity) {
+            this.libraryEntity = libraryEntity;
+            this.libraryPathEntity = libraryPathEntity;
+            this.rootPath = Path.of(libraryPathEntity.getPath());
+            pendingDirectories.add("");
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (bufferedFiles.isEmpty() && !pendingDirectories.isEmpty()) {
+                listDirectory(pendingDirectories.poll());
+            }
+            return !bufferedFiles.isEmpty();
+        }
+
+        @Override
+        public LibraryFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return bufferedFiles.poll();
+        }
+
+        private void listDirectory(String subPath) {
+            Path directory = subPath.isEmpty() ? rootPath : rootPath.resolve(subPath);
+            List<String> fileNames = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        pendingDirectories.add(subPath.isEmpty() ? name : subPath + "/" + name);
+                    } else if (Files.isRegularFile(entry) && FileUtils.isBookFile(name)) {
+                        fileNames.add(name);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            fileNames.sort(FileUtils::compareCodePoints);
+            for (String fileName : fileNames) {
+                bufferedFiles.add(LibraryFile.builder()
+                        .libraryEntity(libraryEntity)
+                        .libraryPathEntity(libraryPathEntity)
+                        .fileSubPath(subPath)
+                        .fileName(fileName)
+                        .bookFileType(fileName.toLowerCase().endsWith(".pdf") ? BookFileType.PDF : BookFileType.EPUB)
+                        .build());
+            }
+        }
+    }
+}
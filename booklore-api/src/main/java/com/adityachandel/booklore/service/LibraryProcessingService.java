@@ -1,16 +1,24 @@
 package com.adityachandel.booklore.service;
 
+import com.adityachandel.booklore.config.AppProperties;
 import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.exception.FileProcessingException;
+import com.adityachandel.booklore.mapper.BookMapper;
+import com.adityachandel.booklore.model.dto.settings.BookFileSnapshot;
+import com.adityachandel.booklore.model.dto.settings.LibraryDiff;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.dto.Book;
-import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.entity.ScanSessionEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.LibraryRepository;
+import com.adityachandel.booklore.service.fileprocessor.BookIngestService;
+import com.adityachandel.booklore.service.fileprocessor.CoverGenerationService;
 import com.adityachandel.booklore.service.fileprocessor.EpubProcessor;
+import com.adityachandel.booklore.service.fileprocessor.FileProcessor;
 import com.adityachandel.booklore.service.fileprocessor.PdfProcessor;
 import com.adityachandel.booklore.util.FileUtils;
 import jakarta.persistence.EntityManager;
@@ -20,11 +28,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.adityachandel.booklore.model.websocket.LogNotification.createLogNotification;
 
@@ -33,19 +49,38 @@ import static com.adityachandel.booklore.model.websocket.LogNotification.createL
 @Slf4j
 public class LibraryProcessingService {
 
+    // Files that keep failing to parse are not retried once they reach this many attempts, unless they change
+    private static final int MAX_PARSE_ATTEMPTS = 3;
+
     private final LibraryRepository libraryRepository;
     private final NotificationService notificationService;
     private final PdfProcessor pdfProcessor;
     private final EpubProcessor epubProcessor;
     private final BookRepository bookRepository;
     private final EntityManager entityManager;
+    private final AppProperties appProperties;
+    private final BookMapper bookMapper;
+    private final LibraryDiffService libraryDiffService;
+    private final LibraryFileScanner libraryFileScanner;
+    private final ScanProgressService scanProgressService;
+    private final ScanSessionService scanSessionService;
+    private final DeviceIoScheduler deviceIoScheduler;
+    private final BookIngestService bookIngestService;
+    private final CoverGenerationService coverGenerationService;
 
     @Transactional
     public void processLibrary(long libraryId) throws IOException {
         LibraryEntity libraryEntity = libraryRepository.findById(libraryId).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
         notificationService.sendMessage(Topic.LOG, createLogNotification("Started processing library: " + libraryEntity.getName()));
-        List<LibraryFile> libraryFiles = getLibraryFiles(libraryEntity);
-        processLibraryFiles(libraryFiles);
+        ScanSessionService.ScanSession session = scanSessionService.startSession(libraryEntity);
+        try {
+            List<LibraryFile> libraryFiles = getLibraryFiles(libraryEntity);
+            processLibraryFiles(libraryFiles);
+            session.complete();
+        } catch (IOException | RuntimeException e) {
+            session.fail();
+            throw e;
+        }
         notificationService.sendMessage(Topic.LOG, createLogNotification("Finished processing library: " + libraryEntity.getName()));
     }
 
@@ -77,7 +112,7 @@ public class LibraryProcessingService {
         } else if (eventKind == StandardWatchEventKinds.ENTRY_DELETE) {
             bookRepository.findBookByFileNameAndLibraryId(fileName, libraryId)
                 .ifPresent(bookEntity -> {
-                    deleteRemovedBooks(List.of(bookEntity));
+                    deleteRemovedBooks(Set.of(bookEntity.getId()));
                     notificationService.sendMessage(Topic.BOOKS_REMOVE, Set.of(bookEntity.getId()));
                 });
         }
@@ -103,15 +138,73 @@ public class LibraryProcessingService {
     public void rescanLibrary(long libraryId) throws IOException {
         LibraryEntity libraryEntity = libraryRepository.findById(libraryId).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
         notificationService.sendMessage(Topic.LOG, createLogNotification("Started refreshing library: " + libraryEntity.getName()));
-        processLibraryFiles(getUnProcessedFiles(libraryEntity));
-        deleteRemovedBooks(getRemovedBooks(libraryEntity));
+        runRescan(libraryEntity, scanSessionService.startSession(libraryEntity));
         notificationService.sendMessage(Topic.LOG, createLogNotification("Finished refreshing library: " + libraryEntity.getName()));
     }
 
     @Transactional
-    protected void deleteRemovedBooks(List<BookEntity> removedBookEntities) {
-        if (!removedBookEntities.isEmpty()) {
-            Set<Long> bookIds = removedBookEntities.stream().map(BookEntity::getId).collect(Collectors.toSet());
+    public void resumeScan(ScanSessionEntity sessionEntity) throws IOException {
+        ScanSessionService.ScanSession session = scanSessionService.resumeSession(sessionEntity);
+        Optional<LibraryEntity> libraryEntity = libraryRepository.findById(session.getLibraryId());
+        if (libraryEntity.isEmpty()) {
+            session.fail();
+            return;
+        }
+        notificationService.sendMessage(Topic.LOG, createLogNotification("Resuming interrupted scan of library: " + libraryEntity.get().getName()));
+        runRescan(libraryEntity.get(), session);
+        notificationService.sendMessage(Topic.LOG, createLogNotification("Finished resumed scan of library: " + libraryEntity.get().getName()));
+    }
+
+    private void runRescan(LibraryEntity libraryEntity, ScanSessionService.ScanSession session) throws IOException {
+        try {
+            LibraryDiff diff = libraryDiffService.diffLibrary(libraryEntity);
+            log.info("Library {} diff: {} new, {} changed, {} moved, {} removed", libraryEntity.getName(),
+                    diff.getNewFiles().size(), diff.getChangedFiles().size(), diff.getMovedFiles().size(), diff.getRemovedBooks().size());
+            libraryDiffService.applyFileUpdates(diff);
+            notifyMovedBooks(diff.getMovedFiles());
+            List<LibraryFile> filesToProcess = new ArrayList<>(diff.getChangedFiles());
+            filesToProcess.addAll(diff.getNewFiles());
+            Set<Long> removedBookIds = diff.getRemovedBooks().stream().map(BookFileSnapshot::getId).collect(Collectors.toSet());
+            filesToProcess.addAll(getIncompleteBooks(libraryEntity, filesToProcess, removedBookIds));
+            processLibraryFiles(filesToProcess);
+            deleteRemovedBooks(removedBookIds);
+            coverGenerationService.enqueueMissingCovers(libraryEntity.getId());
+            session.complete();
+        } catch (IOException | RuntimeException e) {
+            session.fail();
+            throw e;
+        }
+    }
+
+    private List<LibraryFile> getIncompleteBooks(LibraryEntity libraryEntity, List<LibraryFile> filesToProcess, Set<Long> removedBookIds) {
+        Set<Long> scheduledBookIds = filesToProcess.stream()
+                .map(LibraryFile::getBookId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return bookRepository.findByLibraryIdAndParseCompleteFalseAndParseFailuresLessThan(libraryEntity.getId(), MAX_PARSE_ATTEMPTS).stream()
+                .filter(bookEntity -> !scheduledBookIds.contains(bookEntity.getId()) && !removedBookIds.contains(bookEntity.getId()))
+                .map(bookEntity -> LibraryFile.builder()
+                        .libraryEntity(libraryEntity)
+                        .libraryPathEntity(bookEntity.getLibraryPath())
+                        .fileSubPath(bookEntity.getFileSubPath())
+                        .fileName(bookEntity.getFileName())
+                        .bookFileType(bookEntity.getBookType())
+                        .bookId(bookEntity.getId())
+                        .build())
+                .toList();
+    }
+
+    private void notifyMovedBooks(List<LibraryFile> movedFiles) {
+        if (!movedFiles.isEmpty()) {
+            Set<Long> movedBookIds = movedFiles.stream().map(LibraryFile::getBookId).collect(Collectors.toSet());
+            bookRepository.findAllByIdIn(movedBookIds)
+                    .forEach(bookEntity -> notificationService.sendMessage(Topic.BOOK_METADATA_UPDATE, bookMapper.toBook(bookEntity)));
+        }
+    }
+
+    @Transactional
+    protected void deleteRemovedBooks(Set<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
             bookRepository.deleteByIdIn(bookIds);
             notificationService.sendMessage(Topic.BOOKS_REMOVE, bookIds);
             log.info("Books removed: {}", bookIds);
@@ -120,83 +213,143 @@ public class LibraryProcessingService {
 
     @Transactional
     protected void processLibraryFiles(List<LibraryFile> libraryFiles) {
-        for (LibraryFile libraryFile : libraryFiles) {
-            log.info("Processing file: {}", libraryFile.getFileName());
-            Book book = processLibraryFile(libraryFile);
-            if (book != null) {
-                notificationService.sendMessage(Topic.BOOK_ADD, book);
-                notificationService.sendMessage(Topic.LOG, createLogNotification("Book added: " + book.getFileName()));
-                log.info("Processed file: {}", libraryFile.getFileName());
+        if (libraryFiles.isEmpty()) {
+            return;
+        }
+        LibraryEntity libraryEntity = libraryFiles.getFirst().getLibraryEntity();
+        int concurrency = getScanConcurrency(libraryEntity);
+        ScanProgressService.ScanTracker tracker = scanProgressService.startScan(libraryEntity, libraryFiles.size());
+
+        List<LibraryFile> changedFiles = libraryFiles.stream().filter(libraryFile -> libraryFile.getBookId() != null).toList();
+        List<List<LibraryFile>> newFileBatches = toIngestBatches(libraryFiles.stream().filter(libraryFile -> libraryFile.getBookId() == null).toList(), concurrency);
+        try {
+            deviceIoScheduler.execute(newFileBatches, batch -> batch.getFirst().getLibraryPathEntity(), concurrency,
+                    batch -> ingestAndNotify(batch, tracker));
+            deviceIoScheduler.execute(changedFiles, LibraryFile::getLibraryPathEntity, concurrency,
+                    libraryFile -> processAndNotify(libraryFile, tracker));
+        } finally {
+            tracker.finish();
+        }
+
+        double elapsedSeconds = tracker.getElapsedSeconds();
+        String summary = String.format("Processed %d files (%d failed) in %.1fs with concurrency %d: %.2f files/sec",
+                tracker.getProcessedFiles(), tracker.getFailedFiles(), elapsedSeconds, concurrency, tracker.getProcessedFiles() / elapsedSeconds);
+        log.info(summary);
+        notificationService.sendMessage(Topic.LOG, createLogNotification(summary));
+    }
+
+    // Splits new files into per-path batches of at most BATCH_SIZE, smaller when there are too few files to keep
+    // every worker busy
+    private List<List<LibraryFile>> toIngestBatches(List<LibraryFile> newFiles, int concurrency) {
+        int batchSize = Math.clamp((newFiles.size() + concurrency - 1) / concurrency, 1, BookIngestService.BATCH_SIZE);
+        Map<LibraryPathEntity, List<LibraryFile>> filesByPath = new IdentityHashMap<>();
+        newFiles.forEach(libraryFile -> filesByPath.computeIfAbsent(libraryFile.getLibraryPathEntity(), k -> new ArrayList<>()).add(libraryFile));
+        List<List<LibraryFile>> batches = new ArrayList<>();
+        for (List<LibraryFile> files : filesByPath.values()) {
+            for (int i = 0; i < files.size(); i += batchSize) {
+                batches.add(files.subList(i, Math.min(i + batchSize, files.size())));
             }
         }
+        return batches;
     }
 
-    @Transactional
-    protected Book processLibraryFile(LibraryFile libraryFile) {
-        if (libraryFile.getBookFileType() == BookFileType.PDF) {
-            return pdfProcessor.processFile(libraryFile, false);
-        } else if (libraryFile.getBookFileType() == BookFileType.EPUB) {
-            return epubProcessor.processFile(libraryFile, false);
+    private long ingestAndNotify(List<LibraryFile> batch, ScanProgressService.ScanTracker tracker) {
+        List<BookIngestService.IngestedFile> ingestedFiles;
+        try {
+            ingestedFiles = bookIngestService.ingest(batch);
+        } catch (Exception e) {
+            log.warn("Failed to ingest batch of {} files, processing them one at a time: {}", batch.size(), e.getMessage());
+            return batch.stream().mapToLong(libraryFile -> processAndNotify(libraryFile, tracker)).sum();
         }
-        return null;
+        long bytesRead = 0;
+        for (BookIngestService.IngestedFile ingestedFile : ingestedFiles) {
+            long fileSize = getFileSize(ingestedFile.libraryFile());
+            bytesRead += fileSize;
+            notifyProcessed(ingestedFile.libraryFile(), ingestedFile.book());
+            tracker.fileCompleted(fileSize, ingestedFile.parsed());
+        }
+        return bytesRead;
     }
 
-    @Transactional
-    protected List<BookEntity> getRemovedBooks(LibraryEntity libraryEntity) throws IOException {
-        List<LibraryFile> libraryFiles = getLibraryFiles(libraryEntity);
-        List<BookEntity> bookEntities = libraryEntity.getBookEntities();
-        Set<String> libraryFilePaths = libraryFiles.stream()
-                .map(LibraryFile::getFileName)
-                .collect(Collectors.toSet());
-        return bookEntities.stream()
-                .filter(book -> !libraryFilePaths.contains(book.getFileName()))
-                .collect(Collectors.toList());
+    private long processAndNotify(LibraryFile libraryFile, ScanProgressService.ScanTracker tracker) {
+        log.info("Processing file: {}", libraryFile.getFileName());
+        boolean success = false;
+        long fileSize = getFileSize(libraryFile);
+        try {
+            Book book = processLibraryFile(libraryFile);
+            success = true;
+            notifyProcessed(libraryFile, book);
+        } catch (FileProcessingException e) {
+            log.error(e.getMessage());
+            notifyProcessed(libraryFile, e.getBook());
+        } catch (Exception e) {
+            log.error("Failed to process file {}: {}", libraryFile.getFileName(), e.getMessage());
+        } finally {
+            tracker.fileCompleted(fileSize, success);
+        }
+        return fileSize;
     }
 
-    @Transactional
-    protected List<LibraryFile> getUnProcessedFiles(LibraryEntity libraryEntity) throws IOException {
-        List<LibraryFile> libraryFiles = getLibraryFiles(libraryEntity);
-        List<BookEntity> bookEntities = libraryEntity.getBookEntities();
-        Set<String> processedPaths = bookEntities.stream()
-                .map(BookEntity::getFileName)
-                .collect(Collectors.toSet());
-        return libraryFiles.stream()
-                .filter(libraryFile -> !processedPaths.contains(libraryFile.getFileName()))
-                .collect(Collectors.toList());
+    private void notifyProcessed(LibraryFile libraryFile, Book book) {
+        if (book != null && libraryFile.getBookId() != null) {
+            notificationService.sendMessage(Topic.BOOK_METADATA_UPDATE, book);
+            log.info("Reprocessed changed file: {}", libraryFile.getFileName());
+        } else if (book != null) {
+            notificationService.sendMessage(Topic.BOOK_ADD, book);
+            log.info("Processed file: {}", libraryFile.getFileName());
+        }
     }
 
-    private List<LibraryFile> getLibraryFiles(LibraryEntity libraryEntity) throws IOException {
-        List<LibraryFile> libraryFiles = new ArrayList<>();
-        for (LibraryPathEntity libraryPathEntity : libraryEntity.getLibraryPaths()) {
-            libraryFiles.addAll(findLibraryFiles(libraryPathEntity, libraryEntity));
+    private long getFileSize(LibraryFile libraryFile) {
+        if (libraryFile.getFileSizeBytes() != null) {
+            return libraryFile.getFileSizeBytes();
+        }
+        try {
+            return Files.size(libraryFile.getFullPath());
+        } catch (IOException e) {
+            return 0L;
         }
-        return libraryFiles;
     }
 
-    private List<LibraryFile> findLibraryFiles(LibraryPathEntity libraryPathEntity, LibraryEntity libraryEntity) throws IOException {
+    private int getScanConcurrency(LibraryEntity libraryEntity) {
+        Integer libraryConcurrency = libraryEntity.getScanConcurrency();
+        int concurrency = libraryConcurrency != null ? libraryConcurrency : appProperties.getScanConcurrency();
+        return Math.clamp(concurrency, 1, AppProperties.MAX_SCAN_CONCURRENCY);
+    }
+
+    @Transactional
+    protected Book processLibraryFile(LibraryFile libraryFile) {
+        FileProcessor fileProcessor;
+        if (libraryFile.getBookFileType() == BookFileType.PDF) {
+            fileProcessor = pdfProcessor;
+        } else if (libraryFile.getBookFileType() == BookFileType.EPUB) {
+            fileProcessor = epubProcessor;
+        } else {
+            return null;
+        }
+        if (libraryFile.getBookId() != null) {
+            return fileProcessor.reprocessFile(libraryFile);
+        }
+        return fileProcessor.processFile(libraryFile, false);
+    }
+
+    private List<LibraryFile> getLibraryFiles(LibraryEntity libraryEntity) throws IOException {
+        List<LibraryPathEntity> libraryPaths = new ArrayList<>(libraryEntity.getLibraryPaths());
+        Map<LibraryPathEntity, List<LibraryFile>> filesByPath = new ConcurrentHashMap<>();
+        try {
+            deviceIoScheduler.execute(libraryPaths, Function.identity(), libraryPaths.size(), libraryPathEntity -> {
+                try (Stream<LibraryFile> files = libraryFileScanner.streamLibraryFiles(libraryEntity, libraryPathEntity)) {
+                    filesByPath.put(libraryPathEntity, files.toList());
+                }
+                return 0L;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
         List<LibraryFile> libraryFiles = new ArrayList<>();
-        Path libraryPath = Path.of(libraryPathEntity.getPath());
-        try (var stream = Files.walk(libraryPath)) {
-            stream.filter(Files::isRegularFile)
-                    .filter(file -> {
-                        String fileName = file.getFileName().toString().toLowerCase();
-                        return fileName.endsWith(".pdf") || fileName.endsWith(".epub");
-                    })
-                    .forEach(fullFilePath -> {
-                        BookFileType fileType = fullFilePath.getFileName().toString().toLowerCase().endsWith(".pdf")
-                                ? BookFileType.PDF
-                                : BookFileType.EPUB;
-                        String relativePath = FileUtils.getRelativeSubPath(libraryPathEntity.getPath(), fullFilePath);
-                        LibraryFile libraryFile = LibraryFile.builder()
-                                .libraryEntity(libraryEntity)
-                                .libraryPathEntity(libraryPathEntity)
-                                .fileSubPath(relativePath)
-                                .fileName(fullFilePath.getFileName().toString())
-                                .bookFileType(fileType)
-                                .build();
-                        libraryFiles.add(libraryFile);
-                    });
+        for (LibraryPathEntity libraryPathEntity : libraryPaths) {
+            libraryFiles.addAll(filesByPath.getOrDefault(libraryPathEntity, List.of()));
         }
         return libraryFiles;
     }
-}
\ No newline at end of file
+}
@@ -13,6 +13,7 @@ import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.entity.ScanSessionEntity;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.LibraryPathRepository;
@@ -24,6 +25,8 @@ import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -52,6 +55,7 @@ public class LibraryService {
     private final MonitoringService monitoringService;
     private final AuthenticationService authenticationService;
     private final UserRepository userRepository;
+    private final ScanSessionService scanSessionService;
 
     @Transactional
     @PostConstruct
@@ -61,6 +65,23 @@ public class LibraryService {
         log.info("Monitoring initialized with {} libraries", libraries.size());
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedScans() {
+        for (ScanSessionEntity sessionEntity : scanSessionService.getInterruptedSessions()) {
+            log.info("Found interrupted scan session {} for library {}", sessionEntity.getId(), sessionEntity.getLibraryId());
+            Thread.startVirtualThread(() -> {
+                try {
+                    libraryProcessingService.resumeScan(sessionEntity);
+                } catch (InvalidDataAccessApiUsageException e) {
+                    log.warn("InvalidDataAccessApiUsageException - Library id: {}", sessionEntity.getLibraryId());
+                } catch (IOException e) {
+                    log.error("Error while resuming library scan", e);
+                }
+                log.info("Resumed scan completed!");
+            });
+        }
+    }
+
     public Library updateLibrary(CreateLibraryRequest request, Long libraryId) {
         LibraryEntity library = libraryRepository.findById(libraryId)
                 .orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
@@ -68,6 +89,7 @@ public class LibraryService {
         library.setName(request.getName());
         library.setIcon(request.getIcon());
         library.setWatch(request.isWatch());
+        library.setScanConcurrency(request.getScanConcurrency());
 
         Set<String> currentPaths = library.getLibraryPaths().stream()
                 .map(LibraryPathEntity::getPath)
@@ -149,6 +171,7 @@ public class LibraryService {
                 )
                 .icon(request.getIcon())
                 .watch(request.isWatch())
+                .scanConcurrency(request.getScanConcurrency())
                 .build();
 
         libraryEntity = libraryRepository.save(libraryEntity);
@@ -0,0 +1,92 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.repository.NameUpsertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+public class NameInterningService {
+
+    private final NameUpsertRepository nameUpsertRepository;
+    private final NameCache authorCache;
+    private final NameCache categoryCache;
+
+    public NameInterningService(NameUpsertRepository nameUpsertRepository, MeterRegistry meterRegistry) {
+        this.nameUpsertRepository = nameUpsertRepository;
+        this.authorCache = new NameCache("author", meterRegistry);
+        this.categoryCache = new NameCache("category", meterRegistry);
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        authorCache.ids.putAll(nameUpsertRepository.findAllAuthorIds());
+        categoryCache.ids.putAll(nameUpsertRepository.findAllCategoryIds());
+        log.info("Name cache warmed with {} authors and {} categories", authorCache.ids.size(), categoryCache.ids.size());
+    }
+
+    public Map<String, Long> getAuthorIds(Collection<String> names) {
+        return authorCache.resolve(names, nameUpsertRepository::upsertAuthors);
+    }
+
+    public Map<String, Long> getCategoryIds(Collection<String> names) {
+        return categoryCache.resolve(names, nameUpsertRepository::upsertCategories);
+    }
+
+    private static class NameCache {
+
+        private final String type;
+        private final Map<String, Long> ids = new ConcurrentHashMap<>();
+        private final Counter hits;
+        private final Counter misses;
+
+        NameCache(String type, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.hits = Counter.builder("booklore.name.cache.requests").tag("type", type).tag("result", "hit").register(meterRegistry);
+            this.misses = Counter.builder("booklore.name.cache.requests").tag("type", type).tag("result", "miss").register(meterRegistry);
+            meterRegistry.gaugeMapSize("booklore.name.cache.size", List.of(Tag.of("type", type)), ids);
+        }
+
+        Map<String, Long> resolve(Collection<String> names, Function<Collection<String>, Map<String, Long>> upsert) {
+            Map<String, Long> resolved = new LinkedHashMap<>();
+            Set<String> missing = new LinkedHashSet<>();
+            for (String name : names) {
+                if (name == null || name.isBlank()) {
+                    continue;
+                }
+                Long id = ids.get(name);
+                if (id != null) {
+                    hits.increment();
+                    resolved.put(name, id);
+                } else {
+                    misses.increment();
+                    missing.add(name);
+                }
+            }
+            if (!missing.isEmpty()) {
+                Map<String, Long> created = upsert.apply(missing);
+                // The database compares names case-insensitively, so an existing row may come back under a different spelling
+                Map<String, Long> createdIgnoreCase = new HashMap<>();
+                created.forEach((name, id) -> createdIgnoreCase.putIfAbsent(name.toLowerCase(), id));
+                for (String name : missing) {
+                    Long id = created.getOrDefault(name, createdIgnoreCase.get(name.toLowerCase()));
+                    if (id == null) {
+                        log.warn("Unable to resolve {} id for name: {}", type, name);
+                        continue;
+                    }
+                    ids.put(name, id);
+                    resolved.put(name, id);
+                }
+            }
+            return resolved;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.websocket.ScanProgress;
+import com.adityachandel.booklore.model.websocket.Topic;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class ScanProgressService {
+
+    private static final long PUBLISH_INTERVAL_NANOS = 250_000_000L;
+
+    private final NotificationService notificationService;
+    private final AtomicLong scanIds = new AtomicLong();
+    // Keyed by scan rather than by library: a watcher event for a single file can run while a full scan of the same
+    // library is in progress, and each keeps its own tracker
+    private final Map<Long, ScanTracker> runningScans = new ConcurrentHashMap<>();
+
+    public ScanTracker startScan(LibraryEntity libraryEntity, int totalFiles) {
+        ScanTracker tracker = new ScanTracker(scanIds.incrementAndGet(), libraryEntity.getId(), libraryEntity.getName(), totalFiles);
+        runningScans.put(tracker.scanId, tracker);
+        tracker.publish();
+        return tracker;
+    }
+
+    // Trailing edge of the throttle: publishes progress that was throttled away once its window has closed, so the
+    // last files of a burst are not left unreported until the next file or the end of the scan.
+    @Scheduled(fixedDelay = PUBLISH_INTERVAL_NANOS, timeUnit = TimeUnit.NANOSECONDS)
+    public void publishPending() {
+        runningScans.values().forEach(ScanTracker::publishIfPending);
+    }
+
+    // Reports the largest scan running on the library, so a full scan is not hidden by a single-file one beside it
+    public Optional<ScanProgress> getProgress(long libraryId) {
+        return runningScans.values().stream()
+                .filter(tracker -> tracker.libraryId == libraryId)
+                .max(Comparator.comparingInt((ScanTracker tracker) -> tracker.totalFiles).thenComparing(tracker -> -tracker.scanId))
+                .map(ScanTracker::snapshot);
+    }
+
+    public class ScanTracker {
+
+        private final long scanId;
+        private final long libraryId;
+        private final String libraryName;
+        private final int totalFiles;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger processedFiles = new AtomicInteger();
+        private final AtomicInteger failedFiles = new AtomicInteger();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong lastPublishNanos = new AtomicLong(System.nanoTime());
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile boolean finished;
+
+        private ScanTracker(long scanId, long libraryId, String libraryName, int totalFiles) {
+            this.scanId = scanId;
+            this.libraryId = libraryId;
+            this.libraryName = libraryName;
+            this.totalFiles = totalFiles;
+        }
+
+        public void fileCompleted(long fileBytes, boolean success) {
+            bytesRead.addAndGet(fileBytes);
+            if (success) {
+                processedFiles.incrementAndGet();
+            } else {
+                failedFiles.incrementAndGet();
+            }
+            pending.set(true);
+            publishIfPending();
+        }
+
+        public void finish() {
+            finished = true;
+            publish();
+            runningScans.remove(scanId, this);
+        }
+
+        public int getProcessedFiles() {
+            return processedFiles.get();
+        }
+
+        public int getFailedFiles() {
+            return failedFiles.get();
+        }
+
+        public double getElapsedSeconds() {
+            return Math.max((System.nanoTime() - startNanos) / 1_000_000_000d, 0.001d);
+        }
+
+        private void publishIfPending() {
+            long now = System.nanoTime();
+            long lastPublish = lastPublishNanos.get();
+            if (pending.get() && now - lastPublish >= PUBLISH_INTERVAL_NANOS && lastPublishNanos.compareAndSet(lastPublish, now)) {
+                pending.set(false);
+                publish();
+            }
+        }
+
+        private void publish() {
+            notificationService.sendMessage(Topic.SCAN_PROGRESS, snapshot());
+        }
+
+        private ScanProgress snapshot() {
+            int completed = processedFiles.get() + failedFiles.get();
+            double filesPerSecond = completed / getElapsedSeconds();
+            Long etaSeconds = finished ? Long.valueOf(0L) : filesPerSecond > 0 ? Long.valueOf(Math.round((totalFiles - completed) / filesPerSecond)) : null;
+            return ScanProgress.builder()
+                    .scanId(scanId)
+                    .libraryId(libraryId)
+                    .libraryName(libraryName)
+                    .totalFiles(totalFiles)
+                    .processedFiles(processedFiles.get())
+                    .failedFiles(failedFiles.get())
+                    .bytesRead(bytesRead.get())
+                    .filesPerSecond(filesPerSecond)
+                    .etaSeconds(etaSeconds)
+                    .startedAt(startedAt)
+                    .finished(finished)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.ScanSessionEntity;
+import com.adityachandel.booklore.model.enums.ScanSessionStatus;
+import com.adityachandel.booklore.repository.ScanSessionRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Records which library scans are running so that one interrupted by a restart can be resumed. No per-file state is
+// kept: every file is committed with its book, so a resumed scan finds the processed files through the library diff.
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ScanSessionService {
+
+    private final ScanSessionRepository scanSessionRepository;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ScanSession startSession(LibraryEntity libraryEntity) {
+        ScanSessionEntity sessionEntity = scanSessionRepository.save(ScanSessionEntity.builder()
+                .libraryId(libraryEntity.getId())
+                .status(ScanSessionStatus.RUNNING)
+                .startedAt(Instant.now())
+                .build());
+        return new ScanSession(sessionEntity.getId(), libraryEntity.getId());
+    }
+
+    public ScanSession resumeSession(ScanSessionEntity sessionEntity) {
+        log.info("Resuming scan session {} for library {}", sessionEntity.getId(), sessionEntity.getLibraryId());
+        return new ScanSession(sessionEntity.getId(), sessionEntity.getLibraryId());
+    }
+
+    public List<ScanSessionEntity> getInterruptedSessions() {
+        return scanSessionRepository.findByStatus(ScanSessionStatus.RUNNING);
+    }
+
+    public class ScanSession {
+
+        private final long sessionId;
+        private final long libraryId;
+
+        private ScanSession(long sessionId, long libraryId) {
+            this.sessionId = sessionId;
+            this.libraryId = libraryId;
+        }
+
+        public long getLibraryId() {
+            return libraryId;
+        }
+
+        public void complete() {
+            scanSessionRepository.finishSession(sessionId, ScanSessionStatus.COMPLETED, Instant.now());
+        }
+
+        public void fail() {
+            scanSessionRepository.finishSession(sessionId, ScanSessionStatus.FAILED, Instant.now());
+        }
+    }
+}
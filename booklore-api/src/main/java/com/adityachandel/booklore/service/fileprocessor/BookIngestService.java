@@ -0,0 +1,62 @@
+package com.adityachandel.booklore.service.fileprocessor;
+
+import com.adityachandel.booklore.mapper.BookMapper;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.settings.LibraryFile;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.repository.BookRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Ingests new files a batch at a time: every book of the batch is persisted in one transaction and written by a
+// single flush, so the book, metadata and author/category mapping rows go out as JDBC batches. Book ids come from
+// the pooled book_seq and author/category names are upserted in bulk by NameInterningService, so no insert in the
+// batch needs a generated key back from the database.
+@Service
+@AllArgsConstructor
+public class BookIngestService {
+
+    public static final int BATCH_SIZE = 50;
+
+    private final BookRepository bookRepository;
+    private final PdfProcessor pdfProcessor;
+    private final EpubProcessor epubProcessor;
+    private final BookMapper bookMapper;
+
+    public record IngestedFile(LibraryFile libraryFile, Book book, boolean parsed) {
+    }
+
+    // Files whose name is already present in the library are skipped and come back without a book.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<IngestedFile> ingest(List<LibraryFile> libraryFiles) {
+        long libraryId = libraryFiles.getFirst().getLibraryEntity().getId();
+        Set<String> existingFileNames = bookRepository.findFileNamesByLibraryIdAndFileNameIn(libraryId,
+                libraryFiles.stream().map(LibraryFile::getFileName).toList());
+
+        List<BookEntity> bookEntities = new ArrayList<>(libraryFiles.size());
+        for (LibraryFile libraryFile : libraryFiles) {
+            bookEntities.add(existingFileNames.contains(libraryFile.getFileName()) ? null : getProcessor(libraryFile).ingestNewFile(libraryFile));
+        }
+        bookRepository.flush();
+
+        List<IngestedFile> ingested = new ArrayList<>(libraryFiles.size());
+        for (int i = 0; i < libraryFiles.size(); i++) {
+            BookEntity bookEntity = bookEntities.get(i);
+            ingested.add(bookEntity == null
+                    ? new IngestedFile(libraryFiles.get(i), null, true)
+                    : new IngestedFile(libraryFiles.get(i), bookMapper.toBook(bookEntity), Boolean.TRUE.equals(bookEntity.getParseComplete())));
+        }
+        return ingested;
+    }
+
+    private FileProcessor getProcessor(LibraryFile libraryFile) {
+        return libraryFile.getBookFileType() == BookFileType.PDF ? pdfProcessor : epubProcessor;
+    }
+}
@@ -0,0 +1,222 @@
+package com.adityachandel.booklore.service.fileprocessor;
+
+import com.adityachandel.booklore.model.dto.MissingCover;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.websocket.CoverReadyNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookMetadataRepository;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.CoverCacheService;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.util.BookUtils;
+import com.adityachandel.booklore.util.CoverImageDecoder;
+import com.adityachandel.booklore.util.CoverPlaceholder;
+import com.adityachandel.booklore.util.CoverStorageService;
+import com.adityachandel.booklore.util.FileUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class CoverGenerationService {
+
+    private static final int PRIORITY_ON_DEMAND = 0;
+    private static final int PRIORITY_INGEST = 1;
+
+    private final PdfCoverRenderer pdfCoverRenderer;
+    private final EpubMetadataReader epubMetadataReader;
+    private final CoverImageDecoder coverImageDecoder;
+    private final FileProcessingUtils fileProcessingUtils;
+    private final BookMetadataRepository bookMetadataRepository;
+    private final NotificationService notificationService;
+    private final CoverCacheService coverCacheService;
+    private final BookRepository bookRepository;
+
+    private final Map<Long, CoverTask> pending = new ConcurrentHashMap<>();
+    private final Set<Long> withoutCover = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+
+    public CoverGenerationService(PdfCoverRenderer pdfCoverRenderer, EpubMetadataReader epubMetadataReader, CoverImageDecoder coverImageDecoder,
+                                  FileProcessingUtils fileProcessingUtils, BookMetadataRepository bookMetadataRepository,
+                                  NotificationService notificationService, CoverCacheService coverCacheService, BookRepository bookRepository,
+                                  MeterRegistry meterRegistry) {
+        this.pdfCoverRenderer = pdfCoverRenderer;
+        this.epubMetadataReader = epubMetadataReader;
+        this.coverImageDecoder = coverImageDecoder;
+        this.fileProcessingUtils = fileProcessingUtils;
+        this.bookMetadataRepository = bookMetadataRepository;
+        this.notificationService = notificationService;
+        this.coverCacheService = coverCacheService;
+        this.bookRepository = bookRepository;
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                Thread.ofPlatform().name("cover-", 0).daemon().factory());
+        meterRegistry.gaugeMapSize("booklore.cover.queue.size", List.of(), pending);
+    }
+
+    // Queues the cover once the surrounding transaction commits, so the worker never races the book insert. A task
+    // holds only the book id and file path; the file is opened and rendered on the cover pool, outside any
+    // transaction, so at most one decoded image per worker thread is in memory however long the queue grows.
+    public void enqueue(BookEntity bookEntity) {
+        CoverTask task = new CoverTask(bookEntity.getId(), Path.of(FileUtils.getBookFullPath(bookEntity)), bookEntity.getBookType(),
+                PRIORITY_INGEST, sequence.incrementAndGet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(task);
+                }
+            });
+        } else {
+            submit(task);
+        }
+    }
+
+    // Queues every book that still has no cover, e.g. because it was queued when the application stopped. A null
+    // library id covers all libraries. Books already queued, or found to have no cover since startup, are skipped.
+    public void enqueueMissingCovers(Long libraryId) {
+        int queued = 0;
+        for (MissingCover missingCover : bookRepository.findMissingCovers(libraryId)) {
+            if (!withoutCover.contains(missingCover.getBookId()) && !pending.containsKey(missingCover.getBookId())) {
+                Path path = Path.of(missingCover.getLibraryPath(), missingCover.getFileSubPath(), missingCover.getFileName());
+                submit(new CoverTask(missingCover.getBookId(), path, missingCover.getBookType(), PRIORITY_INGEST, sequence.incrementAndGet()));
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            log.info("Queued {} books without a cover", queued);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void enqueueMissingCoversOnStartup() {
+        Thread.startVirtualThread(() -> enqueueMissingCovers(null));
+    }
+
+    // Moves a still-queued cover ahead of ingest work. The ingest task stays in the queue but becomes a no-op,
+    // because only the task currently registered in pending for the book is executed. A book with no queued task
+    // gets one, unless its cover is locked, its file could not be parsed or it was already found to have no cover.
+    public void prioritize(BookEntity bookEntity) {
+        long bookId = bookEntity.getId();
+        CoverTask task = pending.get(bookId);
+        if (task == null) {
+            boolean coverLocked = bookEntity.getMetadata() != null && Boolean.TRUE.equals(bookEntity.getMetadata().getCoverLocked());
+            if (Boolean.TRUE.equals(bookEntity.getParseComplete()) && !coverLocked && !withoutCover.contains(bookId)) {
+                CoverTask urgent = new CoverTask(bookId, Path.of(FileUtils.getBookFullPath(bookEntity)), bookEntity.getBookType(),
+                        PRIORITY_ON_DEMAND, sequence.incrementAndGet());
+                if (pending.putIfAbsent(bookId, urgent) == null) {
+                    executor.execute(urgent);
+                }
+            }
+            return;
+        }
+        if (task.priority == PRIORITY_ON_DEMAND) {
+            return;
+        }
+        CoverTask urgent = new CoverTask(task.bookId, task.path, task.bookType, PRIORITY_ON_DEMAND, sequence.incrementAndGet());
+        if (pending.replace(bookId, task, urgent)) {
+            executor.execute(urgent);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(CoverTask task) {
+        pending.put(task.bookId, task);
+        executor.execute(task);
+    }
+
+    private void generate(CoverTask task) {
+        if (!Files.exists(task.path)) {
+            log.warn("Skipping cover for book {}: file no longer exists", task.bookId);
+            return;
+        }
+        try {
+            BufferedImage cover = extractCover(task.path, task.bookType);
+            if (cover == null) {
+                withoutCover.add(task.bookId);
+                return;
+            }
+            withoutCover.remove(task.bookId);
+            CoverStorageService.StoredCover storedCover = fileProcessingUtils.saveCoverImage(cover, task.bookId);
+            CoverPlaceholder placeholder = storedCover.placeholder();
+            Instant coverUpdatedOn = Instant.now();
+            int updated = bookMetadataRepository.updateCover(task.bookId, storedCover.path().toString(), storedCover.hash(), coverUpdatedOn,
+                    placeholder.blurhash(), placeholder.dominantColor());
+            if (updated == 0) {
+                return;
+            }
+            coverCacheService.evict(task.bookId);
+            notificationService.sendMessage(Topic.COVER_READY, new CoverReadyNotification(task.bookId, BookUtils.getCoverUrl(task.bookId, coverUpdatedOn), coverUpdatedOn,
+                    placeholder.blurhash(), placeholder.dominantColor()));
+        } catch (Exception e) {
+            log.error("Failed to generate cover for book {}: {}", task.bookId, e.getMessage());
+        }
+    }
+
+    private BufferedImage extractCover(Path path, BookFileType bookType) throws Exception {
+        if (bookType == BookFileType.PDF) {
+            try (PDDocument pdf = Loader.loadPDF(path.toFile())) {
+                return pdfCoverRenderer.renderCover(pdf);
+            }
+        }
+        if (bookType == BookFileType.EPUB) {
+            byte[] coverData = epubMetadataReader.read(path, true).getCoverData();
+            return coverData != null ? coverImageDecoder.decodeCover(coverData) : null;
+        }
+        return null;
+    }
+
+    private class CoverTask implements Runnable, Comparable<CoverTask> {
+
+        private final long bookId;
+        private final Path path;
+        private final BookFileType bookType;
+        private final int priority;
+        private final long order;
+
+        CoverTask(long bookId, Path path, BookFileType bookType, int priority, long order) {
+            this.bookId = bookId;
+            this.path = path;
+            this.bookType = bookType;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public void run() {
+            if (pending.remove(bookId, this)) {
+                generate(this);
+            }
+        }
+
+        @Override
+        public int compareTo(CoverTask other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.adityachandel.booklore.service.fileprocessor;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Reads only META-INF/container.xml, the OPF package document and the cover entry, using the zip central
+// directory to seek straight to them instead of inflating the whole archive.
+@Service
+public class EpubMetadataReader {
+
+    private static final String CONTAINER_PATH = "META-INF/container.xml";
+    private static final String DC_NAMESPACE = "http://purl.org/dc/elements/1.1/";
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+
+    public EpubMetadataReader() {
+        documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        documentBuilderFactory.setExpandEntityReferences(false);
+        try {
+            documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            documentBuilderFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            documentBuilderFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public EpubMetadata read(Path epubPath, boolean readCover) throws IOException {
+        try (ZipFile zipFile = new ZipFile(epubPath.toFile())) {
+            String opfPath = findOpfPath(zipFile);
+            Document opf = parse(zipFile, opfPath);
+            Element metadata = firstElement(opf.getDocumentElement(), "*", "metadata");
+            EpubMetadata.EpubMetadataBuilder builder = EpubMetadata.builder()
+                    .title(firstText(metadata, "title"))
+                    .description(firstText(metadata, "description"))
+                    .publisher(firstText(metadata, "publisher"))
+                    .language(firstText(metadata, "language"))
+                    .date(firstText(metadata, "date"))
+                    .identifiers(allText(metadata, "identifier"))
+                    .authors(allText(metadata, "creator"))
+                    .subjects(allText(metadata, "subject"));
+            if (readCover) {
+                String coverHref = findCoverHref(opf, metadata);
+                if (coverHref != null) {
+                    builder.coverData(readEntry(zipFile, resolveHref(opfPath, coverHref)));
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private String findOpfPath(ZipFile zipFile) throws IOException {
+        Document container = parse(zipFile, CONTAINER_PATH);
+        NodeList rootFiles = container.getElementsByTagNameNS("*", "rootfile");
+        for (int i = 0; i < rootFiles.getLength(); i++) {
+            Element rootFile = (Element) rootFiles.item(i);
+            String mediaType = rootFile.getAttribute("media-type");
+            if (mediaType.isEmpty() || mediaType.equals("application/oebps-package+xml")) {
+                return rootFile.getAttribute("full-path");
+            }
+        }
+        throw new IOException("No OPF package document declared in " + CONTAINER_PATH);
+    }
+
+    private String findCoverHref(Document opf, Element metadata) {
+        Element manifest = firstElement(opf.getDocumentElement(), "*", "manifest");
+        if (manifest == null) {
+            return null;
+        }
+        NodeList items = manifest.getElementsByTagNameNS("*", "item");
+        for (int i = 0; i < items.getLength(); i++) {
+            Element item = (Element) items.item(i);
+            if (Arrays.asList(item.getAttribute("properties").split("\\s+")).contains("cover-image")) {
+                return item.getAttribute("href");
+            }
+        }
+        String coverId = null;
+        if (metadata != null) {
+            NodeList metas = metadata.getElementsByTagNameNS("*", "meta");
+            for (int i = 0; i < metas.getLength() && coverId == null; i++) {
+                Element meta = (Element) metas.item(i);
+                if ("cover".equals(meta.getAttribute("name"))) {
+                    coverId = meta.getAttribute("content");
+                }
+            }
+        }
+        Element fallback = null;
+        for (int i = 0; i < items.getLength(); i++) {
+            Element item = (Element) items.item(i);
+            if (!item.getAttribute("media-type").startsWith("image/")) {
+                continue;
+            }
+            if (item.getAttribute("id").equals(coverId)) {
+                return item.getAttribute("href");
+            }
+            if (fallback == null && (item.getAttribute("id").toLowerCase().contains("cover") || item.getAttribute("href").toLowerCase().contains("cover"))) {
+                fallback = item;
+            }
+        }
+        return fallback != null ? fallback.getAttribute("href") : null;
+    }
+
+    private String resolveHref(String opfPath, String href) {
+        String decoded = URLDecoder.decode(href.replace("+", "%2B"), StandardCharsets.UTF_8);
+        int fragment = decoded.indexOf('#');
+        if (fragment >= 0) {
+            decoded = decoded.substring(0, fragment);
+        }
+        int lastSlash = opfPath.lastIndexOf('/');
+        String base = lastSlash >= 0 ? opfPath.substring(0, lastSlash + 1) : "";
+        return Path.of(base + decoded).normalize().toString().replace('\\', '/');
+    }
+
+    private byte[] readEntry(ZipFile zipFile, String entryName) throws IOException {
+        ZipEntry entry = zipFile.getEntry(entryName);
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private Document parse(ZipFile zipFile, String entryName) throws IOException {
+        ZipEntry entry = zipFile.getEntry(entryName);
+        if (entry == null) {
+            throw new IOException("Missing EPUB entry: " + entryName);
+        }
+        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+            return documentBuilder.parse(inputStream);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Failed to parse " + entryName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Element firstElement(Element parent, String namespace, String localName) {
+        if (parent == null) {
+            return null;
+        }
+        NodeList nodes = parent.getElementsByTagNameNS(namespace, localName);
+        return nodes.getLength() > 0 ? (Element) nodes.item(0) : null;
+    }
+
+    private String firstText(Element metadata, String localName) {
+        List<String> values = allText(metadata, localName);
+        return values.isEmpty() ? null : values.getFirst();
+    }
+
+    private List<String> allText(Element metadata, String localName) {
+        List<String> values = new ArrayList<>();
+        if (metadata == null) {
+            return values;
+        }
+        NodeList nodes = metadata.getElementsByTagNameNS(DC_NAMESPACE, localName);
+        for (int i = 0; i < nodes.getLength(); i++) {
+            String text = nodes.item(i).getTextContent().trim();
+            if (!text.isEmpty()) {
+                values.add(text);
+            }
+        }
+        return values;
+    }
+
+    @Getter
+    @Builder
+    public static class EpubMetadata {
+        private String title;
+        private String description;
+        private String publisher;
+        private String language;
+        private String date;
+        private List<String> identifiers;
+        private List<String> authors;
+        private List<String> subjects;
+        private byte[] coverData;
+    }
+}
@@ -1,5 +1,7 @@
 package com.adityachandel.booklore.service.fileprocessor;
 
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.exception.FileProcessingException;
 import com.adityachandel.booklore.mapper.BookMapper;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.dto.Book;
@@ -9,29 +11,21 @@ import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.BookCreatorService;
 import com.adityachandel.booklore.util.FileUtils;
-import io.documentnode.epub4j.domain.Identifier;
-import io.documentnode.epub4j.domain.Metadata;
-import io.documentnode.epub4j.domain.Resource;
-import io.documentnode.epub4j.epub.EpubReader;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -41,9 +35,10 @@ public class EpubProcessor implements FileProcessor {
     private final BookRepository bookRepository;
     private final BookCreatorService bookCreatorService;
     private final BookMapper bookMapper;
-    private final FileProcessingUtils fileProcessingUtils;
+    private final EpubMetadataReader epubMetadataReader;
+    private final CoverGenerationService coverGenerationService;
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = FileProcessingException.class)
     @Override
     public Book processFile(LibraryFile libraryFile, boolean forceProcess) {
         File bookFile = new File(libraryFile.getFileName());
@@ -58,93 +53,111 @@ public class EpubProcessor implements FileProcessor {
         }
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = FileProcessingException.class)
+    @Override
+    public Book reprocessFile(LibraryFile libraryFile) {
+        BookEntity bookEntity = bookRepository.findById(libraryFile.getBookId()).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(libraryFile.getBookId()));
+        BookMetadataEntity metadata = bookEntity.getMetadata();
+        boolean updateMetadata = !Boolean.TRUE.equals(metadata.getAllFieldsLocked());
+        boolean updateCover = updateMetadata && !Boolean.TRUE.equals(metadata.getCoverLocked());
+        bookCreatorService.prepareForReprocess(bookEntity, libraryFile, updateMetadata);
+        extractAndSave(bookEntity, updateMetadata, updateCover);
+        return bookMapper.toBook(bookEntity);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = FileProcessingException.class)
     protected Book processNewFile(LibraryFile libraryFile) {
         BookEntity bookEntity = bookCreatorService.createShellBook(libraryFile, BookFileType.EPUB);
-        try {
-            io.documentnode.epub4j.domain.Book epub = new EpubReader().readEpub(new FileInputStream(FileUtils.getBookFullPath(bookEntity)));
+        extractAndSave(bookEntity, true, true);
+        return bookMapper.toBook(bookEntity);
+    }
 
-            setBookMetadata(epub, bookEntity);
-            processCover(epub, bookEntity);
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public BookEntity ingestNewFile(LibraryFile libraryFile) {
+        BookEntity bookEntity = bookCreatorService.createShellBook(libraryFile, BookFileType.EPUB);
+        try {
+            extract(bookEntity, true, true);
+        } catch (Exception e) {
+            log.error("Error while processing file {}, error: {}", bookEntity.getFileName(), e.getMessage());
+            bookEntity.setParseComplete(false);
+            bookEntity.setParseFailures(bookEntity.getParseFailures() + 1);
+        }
+        return bookEntity;
+    }
 
-            bookCreatorService.saveConnections(bookEntity);
-            bookRepository.save(bookEntity);
+    private void extractAndSave(BookEntity bookEntity, boolean updateMetadata, boolean updateCover) {
+        try {
+            extract(bookEntity, updateMetadata, updateCover);
             bookRepository.flush();
-
         } catch (Exception e) {
-            log.error("Error while processing file {}, error: {}", libraryFile.getFileName(), e.getMessage());
+            log.error("Error while processing file {}, error: {}", bookEntity.getFileName(), e.getMessage());
+            bookEntity.setParseComplete(false);
+            bookEntity.setParseFailures(bookEntity.getParseFailures() + 1);
+            throw new FileProcessingException(bookEntity.getFileName(), bookMapper.toBook(bookEntity), e);
         }
-        return bookMapper.toBook(bookEntity);
     }
 
-    private void processCover(io.documentnode.epub4j.domain.Book epub, BookEntity bookEntity) throws IOException {
-        Resource coverImage = epub.getCoverImage();
-        if (coverImage != null) {
-            boolean success = saveCoverImage(coverImage, bookEntity.getId());
-            if (success) {
-                fileProcessingUtils.setBookCoverPath(bookEntity.getId(), bookEntity.getMetadata());
-            }
+    private void extract(BookEntity bookEntity, boolean updateMetadata, boolean updateCover) throws IOException {
+        EpubMetadataReader.EpubMetadata epub = epubMetadataReader.read(Path.of(FileUtils.getBookFullPath(bookEntity)), false);
+        if (updateMetadata) {
+            setBookMetadata(epub, bookEntity);
         }
-    }
+        bookEntity.setParseComplete(true);
+        bookEntity.setParseFailures(0);
 
-    private static Set<String> getAuthors(io.documentnode.epub4j.domain.Book book) {
-        return book.getMetadata().getAuthors().stream()
-                .map(author -> author.getFirstname() + " " + author.getLastname())
-                .collect(Collectors.toSet());
+        bookCreatorService.saveConnections(bookEntity);
+        if (updateCover) {
+            coverGenerationService.enqueue(bookEntity);
+        }
     }
 
-    private void setBookMetadata(io.documentnode.epub4j.domain.Book book, BookEntity bookEntity) {
+    private void setBookMetadata(EpubMetadataReader.EpubMetadata epub, BookEntity bookEntity) {
         BookMetadataEntity bookMetadata = bookEntity.getMetadata();
-        Metadata epubMetadata = book.getMetadata();
 
-        if (epubMetadata != null) {
-            bookMetadata.setTitle(epubMetadata.getFirstTitle());
+        if (epub.getTitle() != null && !Boolean.TRUE.equals(bookMetadata.getTitleLocked())) {
+            bookMetadata.setTitle(epub.getTitle());
+        }
 
-            if (epubMetadata.getDescriptions() != null && !epubMetadata.getDescriptions().isEmpty()) {
-                bookMetadata.setDescription(epubMetadata.getDescriptions().getFirst());
-            }
+        if (epub.getDescription() != null && !Boolean.TRUE.equals(bookMetadata.getDescriptionLocked())) {
+            bookMetadata.setDescription(epub.getDescription());
+        }
 
-            if (epubMetadata.getPublishers() != null && !epubMetadata.getPublishers().isEmpty()) {
-                bookMetadata.setPublisher(epubMetadata.getPublishers().getFirst());
-            }
+        if (epub.getPublisher() != null && !Boolean.TRUE.equals(bookMetadata.getPublisherLocked())) {
+            bookMetadata.setPublisher(epub.getPublisher());
+        }
 
-            List<String> identifiers = epubMetadata.getIdentifiers().stream()
-                    .map(Identifier::getValue)
-                    .toList();
-            if (!identifiers.isEmpty()) {
-                String isbn13 = identifiers.stream().filter(id -> id.length() == 13).findFirst().orElse(null);
-                String isbn10 = identifiers.stream().filter(id -> id.length() == 10).findFirst().orElse(null);
+        List<String> identifiers = epub.getIdentifiers();
+        if (!identifiers.isEmpty()) {
+            String isbn13 = identifiers.stream().filter(id -> id.length() == 13).findFirst().orElse(null);
+            String isbn10 = identifiers.stream().filter(id -> id.length() == 10).findFirst().orElse(null);
+            if (!Boolean.TRUE.equals(bookMetadata.getIsbn13Locked())) {
                 bookMetadata.setIsbn13(isbn13);
+            }
+            if (!Boolean.TRUE.equals(bookMetadata.getIsbn10Locked())) {
                 bookMetadata.setIsbn10(isbn10);
             }
+        }
 
-            bookMetadata.setLanguage(epubMetadata.getLanguage() == null || epubMetadata.getLanguage().equalsIgnoreCase("UND") ? "en" : epubMetadata.getLanguage());
-
-            if (epubMetadata.getDates() != null && !epubMetadata.getDates().isEmpty()) {
-                epubMetadata.getDates().stream()
-                        .findFirst()
-                        .ifPresent(publishedDate -> {
-                            String dateString = publishedDate.getValue();
-                            if (isValidLocalDate(dateString)) {
-                                LocalDate parsedDate = LocalDate.parse(dateString);
-                                bookMetadata.setPublishedDate(parsedDate);
-                            } else if (isValidOffsetDateTime(dateString)) {
-                                OffsetDateTime offsetDateTime = OffsetDateTime.parse(dateString);
-                                bookMetadata.setPublishedDate(offsetDateTime.toLocalDate());
-                            } else {
-                                log.error("Unable to parse date: {}", dateString);
-                            }
-                        });
-            }
+        if (!Boolean.TRUE.equals(bookMetadata.getLanguageLocked())) {
+            bookMetadata.setLanguage(epub.getLanguage() == null || epub.getLanguage().equalsIgnoreCase("UND") ? "en" : epub.getLanguage());
+        }
 
-            bookCreatorService.addAuthorsToBook(getAuthors(book), bookEntity);
-            bookCreatorService.addCategoriesToBook(epubMetadata.getSubjects(), bookEntity);
+        String dateString = epub.getDate();
+        if (dateString != null && !Boolean.TRUE.equals(bookMetadata.getPublishedDateLocked())) {
+            if (isValidLocalDate(dateString)) {
+                LocalDate parsedDate = LocalDate.parse(dateString);
+                bookMetadata.setPublishedDate(parsedDate);
+            } else if (isValidOffsetDateTime(dateString)) {
+                OffsetDateTime offsetDateTime = OffsetDateTime.parse(dateString);
+                bookMetadata.setPublishedDate(offsetDateTime.toLocalDate());
+            } else {
+                log.error("Unable to parse date: {}", dateString);
+            }
         }
-    }
 
-    private boolean saveCoverImage(Resource coverImage, long bookId) throws IOException {
-        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(coverImage.getData()));
-        return fileProcessingUtils.saveCoverImage(originalImage, bookId);
+        bookCreatorService.addAuthorsToBook(new HashSet<>(epub.getAuthors()), bookEntity);
+        bookCreatorService.addCategoriesToBook(epub.getSubjects(), bookEntity);
     }
 
     private boolean isValidLocalDate(String dateString) {
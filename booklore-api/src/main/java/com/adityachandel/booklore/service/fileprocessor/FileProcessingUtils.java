@@ -2,15 +2,14 @@ package com.adityachandel.booklore.service.fileprocessor;
 
 import com.adityachandel.booklore.config.AppProperties;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
-import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.CoverCacheService;
+import com.adityachandel.booklore.util.CoverStorageService;
+import com.adityachandel.booklore.util.ImageScaler;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -26,35 +25,29 @@ import java.util.stream.Stream;
 public class FileProcessingUtils {
 
     private final AppProperties appProperties;
+    private final CoverStorageService coverStorageService;
+    private final CoverCacheService coverCacheService;
 
-    public void setBookCoverPath(long bookId, BookMetadataEntity bookMetadataEntity) {
-        bookMetadataEntity.setThumbnail(appProperties.getPathConfig() + "/thumbs/" + bookId + "/f.jpg");
+    public void setBookCover(BookMetadataEntity bookMetadataEntity, CoverStorageService.StoredCover storedCover) {
+        bookMetadataEntity.setThumbnail(storedCover.path().toString());
+        bookMetadataEntity.setCoverHash(storedCover.hash());
         bookMetadataEntity.setCoverUpdatedOn(Instant.now());
+        bookMetadataEntity.setCoverBlurhash(storedCover.placeholder().blurhash());
+        bookMetadataEntity.setCoverColor(storedCover.placeholder().dominantColor());
     }
 
-    public boolean saveCoverImage(BufferedImage coverImage, long bookId) throws IOException {
-        File coverDirectory = new File(appProperties.getPathConfig() + "/thumbs");
-        BufferedImage resizedImage = resizeImage(coverImage, 250, 350);
-        File bookDirectory = new File(coverDirectory, String.valueOf(bookId));
-        if (!bookDirectory.exists()) {
-            if (!bookDirectory.mkdirs()) {
-                throw new IOException("Failed to create directory: " + bookDirectory.getAbsolutePath());
-            }
-        }
-        String coverImageName = "f.jpg";
-        File coverImageFile = new File(bookDirectory, coverImageName);
-        return ImageIO.write(resizedImage, "JPEG", coverImageFile);
+    public CoverStorageService.StoredCover saveCoverImage(BufferedImage coverImage, long bookId) throws IOException {
+        CoverStorageService.StoredCover storedCover = coverStorageService.store(coverImage);
+        coverCacheService.evictAfterCommit(bookId);
+        return storedCover;
     }
 
     public BufferedImage resizeImage(BufferedImage originalImage, int width, int height) {
-        Image tmp = originalImage.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resizedImage.createGraphics();
-        g2d.drawImage(tmp, 0, 0, null);
-        g2d.dispose();
-        return resizedImage;
+        return ImageScaler.scale(originalImage, width, height);
     }
 
+    // Covers in the content-addressed store may be shared with other books, so only the cached bytes and any
+    // legacy per-book directory are dropped here; the shared files are reclaimed by CoverGarbageCollector.
     public void deleteBookCovers(Set<Long> bookIds) {
         for (Long bookId : bookIds) {
             String bookCoverFolder = appProperties.getPathConfig() + "/thumbs/" + bookId;
@@ -76,6 +69,7 @@ public class FileProcessingUtils {
                 log.error("Error processing folder: {} - {}", folderPath, e.getMessage());
             }
         }
+        coverCacheService.evict(bookIds);
         log.info("Deleted {} book covers", bookIds.size());
     }
 }
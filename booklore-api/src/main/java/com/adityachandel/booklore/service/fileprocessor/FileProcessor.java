@@ -2,7 +2,14 @@ package com.adityachandel.booklore.service.fileprocessor;
 
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.entity.BookEntity;
 
 public interface FileProcessor {
     Book processFile(LibraryFile libraryFile, boolean forceProcess);
+
+    Book reprocessFile(LibraryFile libraryFile);
+
+    // Persists a new book for the file in the caller's transaction without flushing. A file that cannot be parsed
+    // comes back as a shell with parseComplete false.
+    BookEntity ingestNewFile(LibraryFile libraryFile);
 }
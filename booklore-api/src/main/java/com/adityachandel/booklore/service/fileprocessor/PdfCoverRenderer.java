@@ -0,0 +1,162 @@
+package com.adityachandel.booklore.service.fileprocessor;
+
+import com.adityachandel.booklore.util.CoverStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.contentstream.PDFStreamEngine;
+import org.apache.pdfbox.contentstream.operator.DrawObject;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.contentstream.operator.state.*;
+import org.apache.pdfbox.contentstream.operator.text.BeginText;
+import org.apache.pdfbox.contentstream.operator.text.EndText;
+import org.apache.pdfbox.contentstream.operator.text.SetTextRenderingMode;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.RenderingMode;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.util.Matrix;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class PdfCoverRenderer {
+
+    // Render slightly above the thumbnail size so the final downscale still smooths the text and line art.
+    private static final float OVERSAMPLE = 1.5f;
+    private static final float MAX_DPI = 300f;
+    private static final float POINTS_PER_INCH = 72f;
+    private static final float DOMINANT_IMAGE_COVERAGE = 0.9f;
+
+    private final Counter embeddedCovers;
+    private final Counter renderedCovers;
+
+    public PdfCoverRenderer(MeterRegistry meterRegistry) {
+        this.embeddedCovers = Counter.builder("booklore.pdf.cover.extractions").tag("method", "embedded").register(meterRegistry);
+        this.renderedCovers = Counter.builder("booklore.pdf.cover.extractions").tag("method", "rendered").register(meterRegistry);
+        meterRegistry.gauge("booklore.pdf.cover.embedded.ratio", this, PdfCoverRenderer::getEmbeddedHitRate);
+    }
+
+    public BufferedImage renderCover(PDDocument document) throws IOException {
+        PDPage page = document.getPage(0);
+        BufferedImage embeddedImage = extractDominantImage(page);
+        if (embeddedImage != null) {
+            embeddedCovers.increment();
+            return embeddedImage;
+        }
+        renderedCovers.increment();
+        float scale = getRenderScale(page);
+        long start = System.nanoTime();
+        BufferedImage image = new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        log.debug("Rendered cover at {} DPI ({}x{}) in {} ms", Math.round(scale * POINTS_PER_INCH),
+                image.getWidth(), image.getHeight(), (System.nanoTime() - start) / 1_000_000);
+        return image;
+    }
+
+    public double getEmbeddedHitRate() {
+        double total = embeddedCovers.count() + renderedCovers.count();
+        return total == 0 ? 0 : embeddedCovers.count() / total;
+    }
+
+    private BufferedImage extractDominantImage(PDPage page) {
+        if (page.getRotation() % 360 != 0) {
+            return null;
+        }
+        try {
+            ImageLocator locator = new ImageLocator();
+            locator.processPage(page);
+            PDRectangle box = page.getCropBox();
+            PDImageXObject image = locator.dominantImage;
+            if (image == null || locator.imageCount != 1 || locator.visibleText || image.isStencil()
+                    || locator.dominantArea < box.getWidth() * box.getHeight() * DOMINANT_IMAGE_COVERAGE) {
+                return null;
+            }
+            int subsampling = Math.max(1, (int) Math.min(
+                    image.getWidth() / (CoverStorageService.COVER_WIDTH * OVERSAMPLE),
+                    image.getHeight() / (CoverStorageService.COVER_HEIGHT * OVERSAMPLE)));
+            BufferedImage decoded = image.getImage(null, subsampling);
+            log.debug("Extracted embedded cover image {}x{} with subsampling {}", image.getWidth(), image.getHeight(), subsampling);
+            return decoded;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Embedded cover extraction failed, falling back to rendering: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private float getRenderScale(PDPage page) {
+        PDRectangle box = page.getCropBox();
+        float pageWidth = box.getWidth();
+        float pageHeight = box.getHeight();
+        if (page.getRotation() % 180 != 0) {
+            pageWidth = box.getHeight();
+            pageHeight = box.getWidth();
+        }
+        if (pageWidth <= 0 || pageHeight <= 0) {
+            return 1f;
+        }
+        float scale = Math.max(CoverStorageService.COVER_WIDTH / pageWidth, CoverStorageService.COVER_HEIGHT / pageHeight) * OVERSAMPLE;
+        return Math.min(scale, MAX_DPI / POINTS_PER_INCH);
+    }
+
+    // Walks the page content and records the images it draws. Only upright, unflipped placements qualify as a
+    // cover candidate, and any visible text means the page has to be rendered to keep it.
+    private static class ImageLocator extends PDFStreamEngine {
+
+        private static final Set<String> TEXT_OPERATORS = Set.of("Tj", "TJ", "'", "\"");
+
+        private int imageCount;
+        private PDImageXObject dominantImage;
+        private float dominantArea;
+        private boolean visibleText;
+
+        ImageLocator() {
+            addOperator(new Concatenate(this));
+            addOperator(new DrawObject(this));
+            addOperator(new SetGraphicsStateParameters(this));
+            addOperator(new Save(this));
+            addOperator(new Restore(this));
+            addOperator(new SetMatrix(this));
+            addOperator(new BeginText(this));
+            addOperator(new EndText(this));
+            addOperator(new SetTextRenderingMode(this));
+        }
+
+        @Override
+        protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+            String name = operator.getName();
+            if ("Do".equals(name) && !operands.isEmpty() && operands.getFirst() instanceof COSName objectName) {
+                PDXObject xObject = getResources().getXObject(objectName);
+                if (xObject instanceof PDImageXObject image) {
+                    imageCount++;
+                    Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
+                    float area = Math.abs(ctm.getScaleX() * ctm.getScaleY());
+                    boolean upright = ctm.getShearX() == 0 && ctm.getShearY() == 0 && ctm.getScaleX() > 0 && ctm.getScaleY() > 0;
+                    if (upright && area > dominantArea) {
+                        dominantImage = image;
+                        dominantArea = area;
+                    }
+                } else if (xObject instanceof PDFormXObject form) {
+                    showForm(form);
+                }
+            } else if (TEXT_OPERATORS.contains(name)) {
+                if (getGraphicsState().getTextState().getRenderingMode() != RenderingMode.NEITHER) {
+                    visibleText = true;
+                }
+            } else {
+                super.processOperator(operator, operands);
+            }
+        }
+    }
+}
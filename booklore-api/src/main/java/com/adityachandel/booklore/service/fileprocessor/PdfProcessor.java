@@ -1,9 +1,12 @@
 package com.adityachandel.booklore.service.fileprocessor;
 
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.exception.FileProcessingException;
 import com.adityachandel.booklore.mapper.BookMapper;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.BookCreatorService;
@@ -12,13 +15,10 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
@@ -35,9 +35,9 @@ public class PdfProcessor implements FileProcessor {
     private final BookRepository bookRepository;
     private final BookCreatorService bookCreatorService;
     private final BookMapper bookMapper;
-    private final FileProcessingUtils fileProcessingUtils;
+    private final CoverGenerationService coverGenerationService;
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = FileProcessingException.class)
     @Override
     public Book processFile(LibraryFile libraryFile, boolean forceProcess) {
         File bookFile = new File(libraryFile.getFileName());
@@ -52,27 +52,62 @@ public class PdfProcessor implements FileProcessor {
         }
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = FileProcessingException.class)
+    @Override
+    public Book reprocessFile(LibraryFile libraryFile) {
+        BookEntity bookEntity = bookRepository.findById(libraryFile.getBookId()).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(libraryFile.getBookId()));
+        BookMetadataEntity metadata = bookEntity.getMetadata();
+        boolean updateMetadata = !Boolean.TRUE.equals(metadata.getAllFieldsLocked());
+        boolean updateCover = updateMetadata && !Boolean.TRUE.equals(metadata.getCoverLocked());
+        bookCreatorService.prepareForReprocess(bookEntity, libraryFile, updateMetadata);
+        return bookMapper.toBook(extractAndSave(bookEntity, updateMetadata, updateCover));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = FileProcessingException.class)
     protected Book processNewFile(LibraryFile libraryFile) {
         BookEntity bookEntity = bookCreatorService.createShellBook(libraryFile, BookFileType.PDF);
-        try (PDDocument pdf = Loader.loadPDF(new File(FileUtils.getBookFullPath(bookEntity)))) {
+        return bookMapper.toBook(extractAndSave(bookEntity, true, true));
+    }
 
-            setMetadata(pdf, bookEntity);
-            processCover(pdf, bookEntity);
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public BookEntity ingestNewFile(LibraryFile libraryFile) {
+        BookEntity bookEntity = bookCreatorService.createShellBook(libraryFile, BookFileType.PDF);
+        try {
+            extract(bookEntity, true, true);
+        } catch (Exception e) {
+            log.error("Error while processing file {}, error: {}", bookEntity.getFileName(), e.getMessage());
+            bookEntity.setParseComplete(false);
+            bookEntity.setParseFailures(bookEntity.getParseFailures() + 1);
+        }
+        return bookEntity;
+    }
 
-            bookCreatorService.saveConnections(bookEntity);
-            bookEntity = bookRepository.save(bookEntity);
+    private BookEntity extractAndSave(BookEntity bookEntity, boolean updateMetadata, boolean updateCover) {
+        try {
+            extract(bookEntity, updateMetadata, updateCover);
             bookRepository.flush();
         } catch (Exception e) {
-            log.error("Error while processing file {}, error: {}", libraryFile.getFileName(), e.getMessage());
+            log.error("Error while processing file {}, error: {}", bookEntity.getFileName(), e.getMessage());
+            bookEntity.setParseComplete(false);
+            bookEntity.setParseFailures(bookEntity.getParseFailures() + 1);
+            throw new FileProcessingException(bookEntity.getFileName(), bookMapper.toBook(bookEntity), e);
         }
-        return bookMapper.toBook(bookEntity);
+        return bookEntity;
     }
 
-    private void processCover(PDDocument document, BookEntity bookEntity) throws IOException {
-        boolean success = generateCoverImageAndSave(bookEntity.getId(), document);
-        if (success) {
-            fileProcessingUtils.setBookCoverPath(bookEntity.getId(), bookEntity.getMetadata());
+    private void extract(BookEntity bookEntity, boolean updateMetadata, boolean updateCover) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(new File(FileUtils.getBookFullPath(bookEntity)))) {
+            if (updateMetadata) {
+                setMetadata(pdf, bookEntity);
+            }
+            bookEntity.setParseComplete(true);
+            bookEntity.setParseFailures(0);
+
+            bookCreatorService.saveConnections(bookEntity);
+            if (updateCover) {
+                coverGenerationService.enqueue(bookEntity);
+            }
         }
     }
 
@@ -80,10 +115,10 @@ public class PdfProcessor implements FileProcessor {
         if (document.getDocumentInformation() == null) {
             log.warn("No document information found");
         } else {
-            if (document.getDocumentInformation().getTitle() != null) {
+            if (document.getDocumentInformation().getTitle() != null && !Boolean.TRUE.equals(bookEntity.getMetadata().getTitleLocked())) {
                 bookEntity.getMetadata().setTitle(document.getDocumentInformation().getTitle());
             }
-            if (document.getDocumentInformation().getAuthor() != null) {
+            if (document.getDocumentInformation().getAuthor() != null && !Boolean.TRUE.equals(bookEntity.getMetadata().getAuthorsLocked())) {
                 Set<String> authors = getAuthors(document);
                 bookCreatorService.addAuthorsToBook(authors, bookEntity);
             }
@@ -102,9 +137,4 @@ public class PdfProcessor implements FileProcessor {
         }
         return authorNames.stream().map(String::trim).collect(Collectors.toSet());
     }
-
-    private boolean generateCoverImageAndSave(Long bookId, PDDocument document) throws IOException {
-        BufferedImage coverImage = new PDFRenderer(document).renderImageWithDPI(0, 300, ImageType.RGB);
-        return fileProcessingUtils.saveCoverImage(coverImage, bookId);
-    }
 }
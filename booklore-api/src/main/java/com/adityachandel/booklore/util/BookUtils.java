@@ -1,7 +1,13 @@
 package com.adityachandel.booklore.util;
 
+import java.time.Instant;
+
 public class BookUtils {
 
+    public static String getCoverUrl(long bookId, Instant coverUpdatedOn) {
+        return "/api/v1/books/" + bookId + "/cover?v=" + coverUpdatedOn.toEpochMilli();
+    }
+
     public static String cleanFileName(String fileName) {
         if (fileName == null) {
             return null;
@@ -0,0 +1,74 @@
+package com.adityachandel.booklore.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+@Slf4j
+@Service
+public class CoverImageDecoder {
+
+    // Large enough for the biggest thumbnail pyramid level, so subsampling never costs output quality.
+    private static final int TARGET_WIDTH = ThumbnailPyramidService.SIZES[ThumbnailPyramidService.SIZES.length - 1];
+    private static final int TARGET_HEIGHT = TARGET_WIDTH * 7 / 5;
+
+    private final DistributionSummary decodedBytes;
+
+    public CoverImageDecoder(MeterRegistry meterRegistry) {
+        this.decodedBytes = DistributionSummary.builder("booklore.cover.decoded")
+                .baseUnit("bytes")
+                .description("Size of the decoded pixel buffer per cover")
+                .register(meterRegistry);
+    }
+
+    public BufferedImage decodeCover(byte[] data) throws IOException {
+        return decodeCover(new ByteArrayInputStream(data));
+    }
+
+    // Reads the image header first and decodes with a source subsampling factor that keeps the result just
+    // above the thumbnail target, so a 6000x9000 cover never materialises as a full-resolution pixel buffer.
+    public BufferedImage decodeCover(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            if (imageInputStream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int subsampling = Math.max(1, Math.min(width / TARGET_WIDTH, height / TARGET_HEIGHT));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                long bytes = getBufferSize(image);
+                decodedBytes.record(bytes);
+                log.debug("Decoded {}x{} cover with subsampling {} into {}x{} ({} bytes)", width, height, subsampling, image.getWidth(), image.getHeight(), bytes);
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private long getBufferSize(BufferedImage image) {
+        DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+        return (long) dataBuffer.getSize() * dataBuffer.getNumBanks() * DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8;
+    }
+}
@@ -0,0 +1,219 @@
+package com.adityachandel.booklore.util;
+
+import com.adityachandel.booklore.config.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Covers are stored by the SHA-256 of their 250x350 JPEG under covers/{h0h1}/{h2h3}/{hash}/, next to their
+// thumbnail pyramid. Books sharing artwork share one directory; book_metadata.cover_hash holds the references
+// and unreferenced directories are removed by CoverGarbageCollector.
+@Slf4j
+@Service
+public class CoverStorageService {
+
+    public static final int COVER_WIDTH = 250;
+    public static final int COVER_HEIGHT = 350;
+    private static final String COVER_FILE = "f.jpg";
+    private static final int LOCK_STRIPES = 64;
+
+    private final AppProperties appProperties;
+    private final ThumbnailPyramidService thumbnailPyramidService;
+    private final MeterRegistry meterRegistry;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public CoverStorageService(AppProperties appProperties, ThumbnailPyramidService thumbnailPyramidService, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.thumbnailPyramidService = thumbnailPyramidService;
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public record StoredCover(String hash, Path path, CoverPlaceholder placeholder) {
+    }
+
+    public StoredCover store(BufferedImage source) throws IOException {
+        BufferedImage cover = ImageScaler.scale(source, COVER_WIDTH, COVER_HEIGHT);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!ImageIO.write(cover, "JPEG", output)) {
+            throw new IOException("No JPEG writer available");
+        }
+        byte[] data = output.toByteArray();
+        String hash = sha256(data);
+        Path file = getCoverPath(hash);
+        synchronized (lockFor(hash)) {
+            if (Files.exists(file)) {
+                touch(file);
+                countStore("deduplicated");
+            } else {
+                thumbnailPyramidService.writePyramid(source, file.getParent());
+                writeAtomically(file, data);
+                countStore("written");
+            }
+        }
+        return new StoredCover(hash, file, CoverPlaceholder.of(cover));
+    }
+
+    // Copies a cover from the old per-book thumbs/{bookId} layout into the content-addressed store. The legacy
+    // directory itself is left for the garbage collector once nothing references it any more.
+    public String importLegacyCover(Path legacyCover) throws IOException {
+        byte[] data = Files.readAllBytes(legacyCover);
+        String hash = sha256(data);
+        Path file = getCoverPath(hash);
+        synchronized (lockFor(hash)) {
+            if (Files.exists(file)) {
+                touch(file);
+            } else {
+                Path directory = file.getParent();
+                Files.createDirectories(directory);
+                for (int size : ThumbnailPyramidService.SIZES) {
+                    Path level = legacyCover.resolveSibling("w" + size + ".jpg");
+                    if (Files.exists(level)) {
+                        Files.copy(level, directory.resolve(level.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                writeAtomically(file, data);
+            }
+        }
+        return hash;
+    }
+
+    public Path getCoverPath(String hash) {
+        return getRoot().resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash).resolve(COVER_FILE);
+    }
+
+    // Deletes cover directories whose hash is not referenced. Directories touched within the grace period are kept,
+    // as their reference may belong to a transaction that has not committed yet. The snapshot of referenced hashes
+    // may be stale by the time a directory is reached, so each candidate is re-checked under its stripe lock, which
+    // also keeps store() from reusing the directory while it is being deleted.
+    public int sweep(Set<String> referencedHashes, Predicate<String> isReferenced, Duration gracePeriod) {
+        Path root = getRoot();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int removed = 0;
+        try (DirectoryStream<Path> firstLevel = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path shard : firstLevel) {
+                try (DirectoryStream<Path> secondLevel = Files.newDirectoryStream(shard, Files::isDirectory)) {
+                    for (Path bucket : secondLevel) {
+                        removed += sweepBucket(bucket, referencedHashes, isReferenced, cutoff);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to sweep cover store {}: {}", root, e.getMessage());
+        }
+        return removed;
+    }
+
+    // Deletes per-book directories of the legacy thumbs/{bookId} layout that no book refers to any more.
+    public int sweepLegacy(Set<Long> referencedBookIds, Duration gracePeriod) {
+        Path legacyRoot = Path.of(appProperties.getPathConfig(), "thumbs");
+        if (!Files.isDirectory(legacyRoot)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int removed = 0;
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(legacyRoot, Files::isDirectory)) {
+            for (Path directory : directories) {
+                String name = directory.getFileName().toString();
+                if (!name.chars().allMatch(Character::isDigit) || referencedBookIds.contains(Long.parseLong(name))) {
+                    continue;
+                }
+                if (Files.getLastModifiedTime(directory).toInstant().isBefore(cutoff)) {
+                    deleteRecursively(directory);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to sweep legacy covers in {}: {}", legacyRoot, e.getMessage());
+        }
+        return removed;
+    }
+
+    private int sweepBucket(Path bucket, Set<String> referencedHashes, Predicate<String> isReferenced, Instant cutoff) throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> coverDirectories = Files.newDirectoryStream(bucket, Files::isDirectory)) {
+            for (Path directory : coverDirectories) {
+                String hash = directory.getFileName().toString();
+                if (referencedHashes.contains(hash)) {
+                    continue;
+                }
+                synchronized (lockFor(hash)) {
+                    Path file = directory.resolve(COVER_FILE);
+                    Path marker = Files.exists(file) ? file : directory;
+                    if (Files.getLastModifiedTime(marker).toInstant().isBefore(cutoff) && !isReferenced.test(hash)) {
+                        deleteRecursively(directory);
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, data);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+    }
+
+    private void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    log.error("Failed to delete file: {} - {}", path, e.getMessage());
+                }
+            });
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void countStore(String result) {
+        meterRegistry.counter("booklore.cover.stored", "result", result).increment();
+    }
+
+    private Path getRoot() {
+        return Path.of(appProperties.getPathConfig(), "covers");
+    }
+
+    private String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
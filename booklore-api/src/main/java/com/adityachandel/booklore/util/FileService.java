@@ -10,10 +10,7 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -26,23 +23,22 @@ import java.nio.file.Paths;
 public class FileService {
 
     private final AppProperties appProperties;
+    private final CoverStorageService coverStorageService;
+    private final CoverImageDecoder coverImageDecoder;
 
-    public void createThumbnailFromFile(long bookId, MultipartFile file) {
+    public CoverStorageService.StoredCover createThumbnailFromFile(MultipartFile file) {
         try {
             validateCoverFile(file);
-            String outputFolder = getThumbnailPath(bookId);
-            File folder = new File(outputFolder);
-            if (!folder.exists() && !folder.mkdirs()) {
-                throw ApiError.DIRECTORY_CREATION_FAILED.createException(folder.getAbsolutePath());
+            BufferedImage originalImage;
+            try (InputStream inputStream = file.getInputStream()) {
+                originalImage = coverImageDecoder.decodeCover(inputStream);
             }
-            BufferedImage originalImage = ImageIO.read(file.getInputStream());
             if (originalImage == null) {
                 throw ApiError.IMAGE_NOT_FOUND.createException();
             }
-            BufferedImage resizedImage = resizeImage(originalImage);
-            File outputFile = new File(folder, "f.jpg");
-            ImageIO.write(resizedImage, "JPEG", outputFile);
-            log.info("Thumbnail created and saved at: {}", outputFile.getAbsolutePath());
+            CoverStorageService.StoredCover storedCover = coverStorageService.store(originalImage);
+            log.info("Thumbnail created and saved at: {}", storedCover.path());
+            return storedCover;
         } catch (Exception e) {
             log.error("An error occurred while creating the thumbnail: {}", e.getMessage(), e);
             throw ApiError.FILE_READ_ERROR.createException(e.getMessage());
@@ -82,40 +78,17 @@ public class FileService {
         }
     }
 
-    public String createThumbnail(long bookId, String thumbnailUrl) throws IOException {
-        String newFilename = "f.jpg";
-        resizeAndSaveImage(thumbnailUrl, new File(getThumbnailPath(bookId)), newFilename);
-        return getThumbnailPath(bookId) + newFilename;
-    }
-
-    private void resizeAndSaveImage(String imageUrl, File outputFolder, String outputFileName) throws IOException {
+    public CoverStorageService.StoredCover createThumbnail(String thumbnailUrl) throws IOException {
         BufferedImage originalImage;
-        try (InputStream inputStream = new URL(imageUrl).openStream()) {
-            originalImage = ImageIO.read(inputStream);
+        try (InputStream inputStream = new URL(thumbnailUrl).openStream()) {
+            originalImage = coverImageDecoder.decodeCover(inputStream);
         }
         if (originalImage == null) {
-            throw new IOException("Failed to read image from URL: " + imageUrl);
+            throw new IOException("Failed to read image from URL: " + thumbnailUrl);
         }
-        BufferedImage resizedImage = resizeImage(originalImage);
-        if (!outputFolder.exists() && !outputFolder.mkdirs()) {
-            throw new IOException("Failed to create output directory: " + outputFolder.getAbsolutePath());
-        }
-        File outputFile = new File(outputFolder, outputFileName);
-        ImageIO.write(resizedImage, "JPEG", outputFile);
-        log.info("Image saved to: {}", outputFile.getAbsolutePath());
-    }
-
-    private BufferedImage resizeImage(BufferedImage originalImage) {
-        BufferedImage resizedImage = new BufferedImage(250, 350, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resizedImage.createGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.drawImage(originalImage, 0, 0, 250, 350, null);
-        g2d.dispose();
-        return resizedImage;
-    }
-
-    public String getThumbnailPath(long bookId) {
-        return appProperties.getPathConfig() + "/thumbs/" + bookId + "/";
+        CoverStorageService.StoredCover storedCover = coverStorageService.store(originalImage);
+        log.info("Image saved to: {}", storedCover.path());
+        return storedCover;
     }
 
     public String getMissingThumbnailPath() {
@@ -0,0 +1,199 @@
+package com.adityachandel.booklore.util;
+
+import com.adityachandel.booklore.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Globals;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileStreamingService {
+
+    private final AppProperties appProperties;
+
+    public boolean isAccelRedirectEnabled() {
+        return appProperties.isAccelRedirectEnabled();
+    }
+
+    // Hands the transfer to nginx: the response carries no body, only the internal location nginx serves the
+    // file from, so range handling, validators and sendfile all happen outside the JVM. nginx only exposes the
+    // books root and the cover directories, so files anywhere else are left for the caller to stream itself.
+    public Optional<ResponseEntity.BodyBuilder> accelRedirect(Path path, ContentDisposition contentDisposition) {
+        Path file = path.toAbsolutePath().normalize();
+        Optional<String> location = getAccelLocation(file);
+        if (location.isEmpty()) {
+            log.debug("No internal nginx location serves {}, streaming it from the API", file);
+            return Optional.empty();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header("X-Accel-Redirect", location.get())
+                .contentType(MediaTypeFactory.getMediaType(file.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM));
+        if (contentDisposition != null) {
+            builder.header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString());
+        }
+        return Optional.of(builder);
+    }
+
+    private Optional<String> getAccelLocation(Path file) {
+        Map<String, Path> roots = Map.of(
+                "books", Path.of(appProperties.getAccelRedirectBooksRoot()),
+                "covers", Path.of(appProperties.getPathConfig(), "covers"),
+                "thumbs", Path.of(appProperties.getPathConfig(), "thumbs"));
+        for (Map.Entry<String, Path> root : roots.entrySet()) {
+            Path rootPath = root.getValue().toAbsolutePath().normalize();
+            if (file.startsWith(rootPath) && !file.equals(rootPath)) {
+                String relative = rootPath.relativize(file).toString().replace(File.separatorChar, '/');
+                return Optional.of(appProperties.getAccelRedirectPrefix() + "/" + root.getKey() + "/" + UriUtils.encodePath(relative, StandardCharsets.UTF_8));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public ResponseEntity<StreamingResponseBody> serveFile(Path path, boolean attachment, HttpHeaders requestHeaders) throws IOException {
+        if (isAccelRedirectEnabled()) {
+            Optional<ResponseEntity.BodyBuilder> redirect = accelRedirect(path, getContentDisposition(path, attachment));
+            if (redirect.isPresent()) {
+                return redirect.get().build();
+            }
+        }
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String eTag = String.format("\"%x-%x\"", length, lastModified);
+        String fileName = path.getFileName().toString();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        headers.setLastModified(lastModified);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(requestHeaders, eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM));
+        headers.setContentDisposition(getContentDisposition(path, attachment));
+
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (rangeHeader == null || !isRangeApplicable(requestHeaders, eTag, lastModified)) {
+            headers.setContentLength(length);
+            return body(ResponseEntity.ok().headers(headers), path, 0, length);
+        }
+
+        long start;
+        long end;
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            if (ranges.size() != 1) {
+                headers.setContentLength(length);
+                return body(ResponseEntity.ok().headers(headers), path, 0, length);
+            }
+            start = ranges.getFirst().getRangeStart(length);
+            end = ranges.getFirst().getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+        long rangeLength = end - start + 1;
+        headers.setContentLength(rangeLength);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        return body(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers), path, start, rangeLength);
+    }
+
+    private ContentDisposition getContentDisposition(Path path, boolean attachment) {
+        return ContentDisposition.builder(attachment ? "attachment" : "inline").filename(path.getFileName().toString(), StandardCharsets.UTF_8).build();
+    }
+
+    private ResponseEntity<StreamingResponseBody> body(ResponseEntity.BodyBuilder builder, Path path, long position, long count) {
+        return sendfile(path, position, count) ? builder.build() : builder.body(transfer(path, position, count));
+    }
+
+    // Tomcat's NIO connector sends the file itself, with sendfile straight from the page cache, when the request
+    // carries these attributes and the response has no body of its own. It is not available over HTTP/2 or in other
+    // containers, which fall back to transfer().
+    private boolean sendfile(Path path, long position, long count) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            return false;
+        }
+        request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, path.toString());
+        request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, position);
+        request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, position + count);
+        return true;
+    }
+
+    // The servlet output stream is not a file descriptor, so transferTo here copies through a heap buffer; it only
+    // keeps the whole file from being loaded at once
+    private StreamingResponseBody transfer(Path path, long position, long count) {
+        return outputStream -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long remaining = count;
+                while (remaining > 0) {
+                    long transferred = channel.transferTo(position + count - remaining, remaining, target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    remaining -= transferred;
+                }
+            } catch (IOException e) {
+                log.debug("Transfer of {} aborted: {}", path, e.getMessage());
+            }
+        };
+    }
+
+    public boolean isNotModified(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || stripWeak(tag).equals(eTag));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince != -1 && lastModified != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private boolean isRangeApplicable(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            long ifRangeDate = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified / 1000 <= ifRangeDate / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -2,11 +2,21 @@ package com.adityachandel.booklore.util;
 
 import com.adityachandel.booklore.model.entity.BookEntity;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Optional;
 
 public class FileUtils {
 
+    private static final int FINGERPRINT_CHUNK_SIZE = 64 * 1024;
+
     public static String getBookFullPath(BookEntity bookEntity) {
         return bookEntity.getLibraryPath().getPath() + "/" + bookEntity.getFileSubPath() + "/" + bookEntity.getFileName();
     }
@@ -19,4 +29,61 @@ public class FileUtils {
                 .map(path -> path.replace("\\", "/"))
                 .orElse("");
     }
-}
\ No newline at end of file
+
+    public static long getLastModified(Path path) throws IOException {
+        return Files.getLastModifiedTime(path).toMillis();
+    }
+
+    public static boolean isBookFile(String fileName) {
+        String lowerCaseName = fileName.toLowerCase();
+        return lowerCaseName.endsWith(".pdf") || lowerCaseName.endsWith(".epub");
+    }
+
+    // Orders by Unicode code point, which matches a binary sort of utf8 columns in the database
+    public static int compareCodePoints(String first, String second) {
+        int i = 0;
+        int j = 0;
+        while (i < first.length() && j < second.length()) {
+            int firstCodePoint = first.codePointAt(i);
+            int secondCodePoint = second.codePointAt(j);
+            if (firstCodePoint != secondCodePoint) {
+                return Integer.compare(firstCodePoint, secondCodePoint);
+            }
+            i += Character.charCount(firstCodePoint);
+            j += Character.charCount(secondCodePoint);
+        }
+        return Integer.compare(first.length() - i, second.length() - j);
+    }
+
+    // SHA-256 over the size plus the first and last 64 KB of the file
+    public static String computePartialHash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(size).flip());
+            ByteBuffer buffer = ByteBuffer.allocate(FINGERPRINT_CHUNK_SIZE);
+            updateDigest(digest, channel, buffer, 0);
+            if (size > FINGERPRINT_CHUNK_SIZE) {
+                updateDigest(digest, channel, buffer, Math.max(FINGERPRINT_CHUNK_SIZE, size - FINGERPRINT_CHUNK_SIZE));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateDigest(MessageDigest digest, FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        digest.update(buffer);
+    }
+}
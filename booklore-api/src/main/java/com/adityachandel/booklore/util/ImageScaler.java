@@ -0,0 +1,71 @@
+package com.adityachandel.booklore.util;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+public class ImageScaler {
+
+    // Downscales in 2x2 box-filter halvings straight on the int pixel array while the image is at least twice
+    // the target size, then finishes with one bilinear step. Each halving averages every source pixel, so large
+    // sources do not alias the way a single bilinear draw does, and no intermediate java.awt.Image is created.
+    public static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = toIntRgb(source);
+        while (current.getWidth() >= width * 2 && current.getHeight() >= height * 2) {
+            current = halve(current);
+        }
+        if (current.getWidth() == width && current.getHeight() == height) {
+            return current;
+        }
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(current, 0, 0, width, height, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage halve(BufferedImage source) {
+        int sourceWidth = source.getWidth();
+        int width = sourceWidth / 2;
+        int height = source.getHeight() / 2;
+        int[] in = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+        BufferedImage halved = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] out = ((DataBufferInt) halved.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++) {
+            int row0 = 2 * y * sourceWidth;
+            int row1 = row0 + sourceWidth;
+            int outRow = y * width;
+            for (int x = 0; x < width; x++) {
+                int p0 = in[row0 + 2 * x];
+                int p1 = in[row0 + 2 * x + 1];
+                int p2 = in[row1 + 2 * x];
+                int p3 = in[row1 + 2 * x + 1];
+                int r = (((p0 >> 16) & 0xff) + ((p1 >> 16) & 0xff) + ((p2 >> 16) & 0xff) + ((p3 >> 16) & 0xff) + 2) >> 2;
+                int g = (((p0 >> 8) & 0xff) + ((p1 >> 8) & 0xff) + ((p2 >> 8) & 0xff) + ((p3 >> 8) & 0xff) + 2) >> 2;
+                int b = ((p0 & 0xff) + (p1 & 0xff) + (p2 & 0xff) + (p3 & 0xff) + 2) >> 2;
+                out[outRow + x] = (r << 16) | (g << 8) | b;
+            }
+        }
+        return halved;
+    }
+
+    private static BufferedImage toIntRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB
+                && source.getRaster().getParent() == null
+                && source.getRaster().getDataBuffer().getOffset() == 0
+                && source.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel
+                && sampleModel.getScanlineStride() == source.getWidth()) {
+            return source;
+        }
+        BufferedImage converted = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = converted.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, source.getWidth(), source.getHeight());
+        g2d.drawImage(source, 0, 0, null);
+        g2d.dispose();
+        return converted;
+    }
+}
@@ -0,0 +1,145 @@
+package com.adityachandel.booklore.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class ThumbnailPyramidService {
+
+    public static final int[] SIZES = {80, 160, 320, 640};
+    private static final String LEGACY_THUMBNAIL = "f.jpg";
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int LOCK_STRIPES = 64;
+
+    private final MeterRegistry meterRegistry;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<Integer, DistributionSummary> servedBytes = new ConcurrentHashMap<>();
+
+    public ThumbnailPyramidService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public void writePyramid(BufferedImage source, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        BufferedImage level = source;
+        for (int i = SIZES.length - 1; i >= 0; i--) {
+            if (i > 0 && SIZES[i] > source.getWidth()) {
+                continue;
+            }
+            level = scale(level, SIZES[i]);
+            writeProgressiveJpeg(level, directory.resolve(getFileName(SIZES[i])));
+        }
+    }
+
+    // Returns the pyramid level stored next to the given cover for the requested width, generating it from the
+    // largest image in that directory when the level is missing, e.g. for covers written before the pyramid existed.
+    // Images are never upscaled: when nothing in the directory is as wide as the level, the largest one is served.
+    public Path getThumbnail(Path cover, int requestedSize) throws IOException {
+        int size = snapSize(requestedSize);
+        Path directory = cover.getParent();
+        Path thumbnail = directory.resolve(getFileName(size));
+        if (Files.exists(thumbnail)) {
+            return thumbnail;
+        }
+        synchronized (lockFor(directory)) {
+            if (Files.exists(thumbnail)) {
+                return thumbnail;
+            }
+            Path source = findLargestSource(directory);
+            if (source == null || getSourceWidth(source) < size) {
+                return source;
+            }
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                return null;
+            }
+            writeProgressiveJpeg(scale(image, size), thumbnail);
+            log.info("Generated {}px thumbnail in {}", size, directory);
+        }
+        return thumbnail;
+    }
+
+    public void recordServed(int requestedSize, long bytes) {
+        int size = snapSize(requestedSize);
+        servedBytes.computeIfAbsent(size, s -> DistributionSummary.builder("booklore.cover.served")
+                        .baseUnit("bytes")
+                        .tag("size", String.valueOf(s))
+                        .register(meterRegistry))
+                .record(bytes);
+    }
+
+    public int snapSize(int requestedSize) {
+        for (int size : SIZES) {
+            if (requestedSize <= size) {
+                return size;
+            }
+        }
+        return SIZES[SIZES.length - 1];
+    }
+
+    private Path findLargestSource(Path directory) {
+        Path legacy = directory.resolve(LEGACY_THUMBNAIL);
+        for (int i = SIZES.length - 1; i >= 0; i--) {
+            Path candidate = directory.resolve(getFileName(SIZES[i]));
+            if (SIZES[i] < CoverStorageService.COVER_WIDTH && Files.exists(legacy)) {
+                return legacy;
+            }
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+        }
+        return Files.exists(legacy) ? legacy : null;
+    }
+
+    private int getSourceWidth(Path source) {
+        String fileName = source.getFileName().toString();
+        return fileName.equals(LEGACY_THUMBNAIL) ? CoverStorageService.COVER_WIDTH : Integer.parseInt(fileName.substring(1, fileName.indexOf('.')));
+    }
+
+    private Object lockFor(Path directory) {
+        return locks[Math.floorMod(directory.hashCode(), LOCK_STRIPES)];
+    }
+
+    private BufferedImage scale(BufferedImage source, int width) {
+        return ImageScaler.scale(source, width, width * 7 / 5);
+    }
+
+    private void writeProgressiveJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String getFileName(int size) {
+        return "w" + size + ".jpg";
+    }
+}
@@ -0,0 +1,18 @@
+ALTER TABLE book_metadata
+    ADD COLUMN author_sort VARCHAR(255) NULL;
+
+UPDATE book_metadata m
+SET author_sort = (SELECT MIN(a.name)
+                   FROM book_metadata_author_mapping am
+                            JOIN author a ON a.id = am.author_id
+                   WHERE am.book_id = m.book_id);
+
+CREATE INDEX IF NOT EXISTS idx_book_added_on ON book (added_on, id);
+CREATE INDEX IF NOT EXISTS idx_book_library_added_on ON book (library_id, added_on, id);
+CREATE INDEX IF NOT EXISTS idx_book_metadata_title ON book_metadata (title, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_metadata_author_sort ON book_metadata (author_sort, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_metadata_rating ON book_metadata (rating, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_metadata_series ON book_metadata (series_name, series_number, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_metadata_language ON book_metadata (language, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_metadata_category ON book_metadata_category_mapping (category_id, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_shelf_mapping_shelf ON book_shelf_mapping (shelf_id, book_id);
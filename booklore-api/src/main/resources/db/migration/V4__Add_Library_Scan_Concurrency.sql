@@ -0,0 +1,2 @@
+ALTER TABLE library
+    ADD COLUMN scan_concurrency INT NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE book
+    ADD COLUMN file_size_bytes  BIGINT      NULL,
+    ADD COLUMN file_modified_ms BIGINT      NULL,
+    ADD COLUMN file_hash        VARCHAR(64) NULL;
+CREATE INDEX IF NOT EXISTS idx_book_library_file_hash ON book (library_id, file_hash);
@@ -0,0 +1,5 @@
+SET @book_seq_start = (SELECT COALESCE(MAX(id), 0) + 51 FROM book);
+SET @create_book_seq = CONCAT('CREATE SEQUENCE IF NOT EXISTS book_seq START WITH ', @book_seq_start, ' INCREMENT BY 50');
+PREPARE create_book_seq_stmt FROM @create_book_seq;
+EXECUTE create_book_seq_stmt;
+DEALLOCATE PREPARE create_book_seq_stmt;
@@ -0,0 +1,16 @@
+ALTER TABLE book
+    ADD COLUMN parse_complete BOOLEAN NOT NULL DEFAULT TRUE,
+    ADD COLUMN parse_failures INT     NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_book_parse_complete ON book (library_id, parse_complete);
+
+
+CREATE TABLE IF NOT EXISTS scan_session
+(
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    library_id  BIGINT      NOT NULL,
+    status      VARCHAR(16) NOT NULL,
+    started_at  TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP   NULL,
+    CONSTRAINT fk_scan_session_library FOREIGN KEY (library_id) REFERENCES library (id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_scan_session_status ON scan_session (status);
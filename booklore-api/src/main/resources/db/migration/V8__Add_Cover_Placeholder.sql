@@ -0,0 +1,3 @@
+ALTER TABLE book_metadata
+    ADD COLUMN cover_blurhash VARCHAR(64) NULL,
+    ADD COLUMN cover_color    VARCHAR(7)  NULL;
@@ -0,0 +1,3 @@
+ALTER TABLE book_metadata
+    ADD COLUMN cover_hash VARCHAR(64) NULL;
+CREATE INDEX IF NOT EXISTS idx_book_metadata_cover_hash ON book_metadata (cover_hash);
@@ -0,0 +1,165 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.security.AuthenticationService;
+import com.adityachandel.booklore.mapper.*;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.service.fileprocessor.CoverGenerationService;
+import com.adityachandel.booklore.util.FileService;
+import com.adityachandel.booklore.util.FileStreamingService;
+import com.adityachandel.booklore.util.ThumbnailPyramidService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BooksService.class, BookMapperImpl.class, BookMetadataMapperImpl.class, ShelfMapperImpl.class,
+        AuthorMapperImpl.class, CategoryMapperImpl.class, AwardMapperImpl.class})
+class BooksServiceTest {
+
+    @Autowired
+    private BooksService booksService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AuthenticationService authenticationService;
+
+    @MockitoBean
+    private FileService fileService;
+
+    @MockitoBean
+    private FileStreamingService fileStreamingService;
+
+    @MockitoBean
+    private ThumbnailPyramidService thumbnailPyramidService;
+
+    @MockitoBean
+    private CoverCacheService coverCacheService;
+
+    @MockitoBean
+    private CoverGenerationService coverGenerationService;
+
+    private Statistics statistics;
+    private BookLoreUserEntity user;
+    private LibraryEntity library;
+    private LibraryPathEntity libraryPath;
+    private ShelfEntity shelf;
+    private AuthorEntity author;
+    private CategoryEntity category;
+    private int bookCount;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = BookLoreUserEntity.builder().username("reader").passwordHash("hash").name("Reader").build();
+        user.setPermissions(UserPermissionsEntity.builder().user(user).permissionAdmin(true).build());
+        entityManager.persist(user);
+
+        library = LibraryEntity.builder().name("Library").icon("book").build();
+        entityManager.persist(library);
+        libraryPath = LibraryPathEntity.builder().library(library).path("/books").build();
+        entityManager.persist(libraryPath);
+        shelf = ShelfEntity.builder().user(user).name("Shelf").icon("heart").build();
+        entityManager.persist(shelf);
+        author = AuthorEntity.builder().name("Author").build();
+        entityManager.persist(author);
+        category = CategoryEntity.builder().name("Category").build();
+        entityManager.persist(category);
+
+        BookLoreUser authenticatedUser = new BookLoreUser();
+        authenticatedUser.setId(user.getId());
+        when(authenticationService.getAuthenticatedUser()).thenReturn(authenticatedUser);
+    }
+
+    @Test
+    void getBooksIssuesTheSameStatementsRegardlessOfBookCount() {
+        addBooks(10);
+        long statementsForTenBooks = countGetBooksStatements();
+
+        addBooks(90);
+        long statementsForHundredBooks = countGetBooksStatements();
+
+        assertThat(statementsForHundredBooks).isEqualTo(statementsForTenBooks);
+    }
+
+    private long countGetBooksStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Book> books = booksService.getBooks(false);
+
+        assertThat(books).hasSize(bookCount);
+        assertThat(books).allSatisfy(book -> {
+            assertThat(book.getMetadata().getAuthors()).containsExactly("Author");
+            assertThat(book.getMetadata().getCategories()).containsExactly("Category");
+            assertThat(book.getMetadata().getAwards()).hasSize(1);
+            assertThat(book.getShelves()).hasSize(1);
+            assertThat(book.getPdfProgress()).isEqualTo(1);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addBooks(int count) {
+        for (int i = 0; i < count; i++) {
+            int index = bookCount++;
+            BookEntity book = BookEntity.builder()
+                    .fileName("book-" + index + ".pdf")
+                    .fileSubPath("")
+                    .bookType(BookFileType.PDF)
+                    .library(entityManager.find(LibraryEntity.class, library.getId()))
+                    .libraryPath(entityManager.find(LibraryPathEntity.class, libraryPath.getId()))
+                    .addedOn(Instant.now())
+                    .parseComplete(true)
+                    .shelves(new ArrayList<>(List.of(entityManager.find(ShelfEntity.class, shelf.getId()))))
+                    .build();
+            BookMetadataEntity metadata = BookMetadataEntity.builder()
+                    .book(book)
+                    .title("Book " + index)
+                    .authors(new ArrayList<>(List.of(entityManager.find(AuthorEntity.class, author.getId()))))
+                    .categories(new ArrayList<>(List.of(entityManager.find(CategoryEntity.class, category.getId()))))
+                    .build();
+            book.setMetadata(metadata);
+            entityManager.persist(book);
+            entityManager.persist(BookAwardEntity.builder()
+                    .book(metadata)
+                    .name("Award")
+                    .category("Novel")
+                    .designation("Winner")
+                    .awardedAt(LocalDate.of(2020, 1, 1))
+                    .build());
+            entityManager.persist(UserBookProgressEntity.builder()
+                    .user(entityManager.find(BookLoreUserEntity.class, user.getId()))
+                    .book(book)
+                    .pdfProgress(1)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.websocket.ScanProgress;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ScanProgressServiceTest {
+
+    private final ScanProgressService scanProgressService = new ScanProgressService(mock(NotificationService.class));
+    private final LibraryEntity library = LibraryEntity.builder().id(1L).name("Library").build();
+
+    @Test
+    void singleFileScanDoesNotReplaceRunningFullScan() {
+        ScanProgressService.ScanTracker fullScan = scanProgressService.startScan(library, 100);
+        fullScan.fileCompleted(10, true);
+
+        ScanProgressService.ScanTracker singleFile = scanProgressService.startScan(library, 1);
+        assertThat(scanProgressService.getProgress(1L)).get().extracting(ScanProgress::getTotalFiles).isEqualTo(100);
+
+        singleFile.fileCompleted(10, true);
+        singleFile.finish();
+
+        ScanProgress progress = scanProgressService.getProgress(1L).orElseThrow();
+        assertThat(progress.getTotalFiles()).isEqualTo(100);
+        assertThat(progress.getProcessedFiles()).isEqualTo(1);
+
+        fullScan.finish();
+        assertThat(scanProgressService.getProgress(1L)).isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+package com.adityachandel.booklore.service.fileprocessor;
+
+import com.adityachandel.booklore.mapper.BookMapper;
+import com.adityachandel.booklore.model.dto.settings.LibraryFile;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.BookCreatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EpubProcessorTest {
+
+    private static final long BOOK_ID = 1L;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookCreatorService bookCreatorService;
+
+    @Mock
+    private BookMapper bookMapper;
+
+    @Mock
+    private EpubMetadataReader epubMetadataReader;
+
+    @Mock
+    private CoverGenerationService coverGenerationService;
+
+    @InjectMocks
+    private EpubProcessor epubProcessor;
+
+    private LibraryPathEntity libraryPath;
+    private BookMetadataEntity metadata;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        libraryPath = LibraryPathEntity.builder().path("/books").build();
+        metadata = BookMetadataEntity.builder()
+                .title("Edited title")
+                .description("Edited description")
+                .publisher("Edited publisher")
+                .isbn13("9780000000001")
+                .isbn10("0000000001")
+                .language("de")
+                .publishedDate(LocalDate.of(1999, 1, 1))
+                .build();
+        BookEntity bookEntity = BookEntity.builder()
+                .id(BOOK_ID)
+                .bookType(BookFileType.EPUB)
+                .libraryPath(libraryPath)
+                .fileSubPath("")
+                .fileName("book.epub")
+                .metadata(metadata)
+                .build();
+        when(bookRepository.findById(BOOK_ID)).thenReturn(Optional.of(bookEntity));
+        when(epubMetadataReader.read(any(Path.class), eq(false))).thenReturn(EpubMetadataReader.EpubMetadata.builder()
+                .title("File title")
+                .description("File description")
+                .publisher("File publisher")
+                .identifiers(List.of("9781111111111", "1111111111"))
+                .language("fr")
+                .date("2020-05-05")
+                .authors(List.of())
+                .subjects(List.of())
+                .build());
+    }
+
+    @Test
+    void reprocessKeepsLockedFields() {
+        metadata.setTitleLocked(true);
+        metadata.setDescriptionLocked(true);
+        metadata.setPublisherLocked(true);
+        metadata.setIsbn13Locked(true);
+        metadata.setIsbn10Locked(true);
+        metadata.setLanguageLocked(true);
+        metadata.setPublishedDateLocked(true);
+
+        epubProcessor.reprocessFile(libraryFile());
+
+        assertThat(metadata.getTitle()).isEqualTo("Edited title");
+        assertThat(metadata.getDescription()).isEqualTo("Edited description");
+        assertThat(metadata.getPublisher()).isEqualTo("Edited publisher");
+        assertThat(metadata.getIsbn13()).isEqualTo("9780000000001");
+        assertThat(metadata.getIsbn10()).isEqualTo("0000000001");
+        assertThat(metadata.getLanguage()).isEqualTo("de");
+        assertThat(metadata.getPublishedDate()).isEqualTo(LocalDate.of(1999, 1, 1));
+    }
+
+    @Test
+    void reprocessUpdatesUnlockedFields() {
+        metadata.setDescriptionLocked(true);
+
+        epubProcessor.reprocessFile(libraryFile());
+
+        assertThat(metadata.getTitle()).isEqualTo("File title");
+        assertThat(metadata.getDescription()).isEqualTo("Edited description");
+        assertThat(metadata.getPublisher()).isEqualTo("File publisher");
+        assertThat(metadata.getIsbn13()).isEqualTo("9781111111111");
+        assertThat(metadata.getIsbn10()).isEqualTo("1111111111");
+        assertThat(metadata.getLanguage()).isEqualTo("fr");
+        assertThat(metadata.getPublishedDate()).isEqualTo(LocalDate.of(2020, 5, 5));
+    }
+
+    private LibraryFile libraryFile() {
+        return LibraryFile.builder()
+                .bookId(BOOK_ID)
+                .libraryPathEntity(libraryPath)
+                .fileSubPath("")
+                .fileName("book.epub")
+                .bookFileType(BookFileType.EPUB)
+                .build();
+    }
+}